@@ -0,0 +1,43 @@
+#!/usr/bin/env bash
+#Compares throughput and p99 latency of the platform thread default with the virtual profile (Java 21+).
+#Needs: a JDK 21, wrk (https://github.com/wg/wrk), a running MySQL with the eazybank schema.
+#Usage: ./LoadTest.sh [concurrency...]     e.g. ./LoadTest.sh 100 1000 5000
+set -euo pipefail
+
+CONCURRENCY=${*:-"100 1000 5000"}
+DURATION=${DURATION:-30s}
+PORT=8082
+USER_EMAIL=${USER_EMAIL:-happy@example.com}
+USER_PASSWORD=${USER_PASSWORD:-12345}
+#No rate limit and no sampling noise while measuring
+APP_ARGS="--security.login-rate-limit.enabled=false --audit.success-sample-rate=0.0"
+
+#Build for Java 21
+./mvnw -q -Pjava21 -DskipTests package
+JAR=$(ls target/SpringSecurity-*.jar | head -1)
+
+run() {
+  local mode=$1 profiles=$2
+  java -jar "$JAR" --spring.profiles.active="$profiles" $APP_ARGS > "target/loadtest-$mode.log" 2>&1 &
+  local pid=$!
+  until curl -s -o /dev/null "http://localhost:$PORT/notices"; do sleep 1; done
+
+  #Log in once (HTTP Basic) and reuse the JWT, like the Angular client does
+  local jwt
+  jwt=$(curl -s -D - -o /dev/null -u "$USER_EMAIL:$USER_PASSWORD" "http://localhost:$PORT/user" | tr -d '\r' | awk -F': ' 'tolower($1)=="authorization"{print $2}')
+
+  for c in $CONCURRENCY; do
+    echo "== $mode, $c connections: GET /notices (public)"
+    wrk -t8 -c"$c" -d"$DURATION" --latency "http://localhost:$PORT/notices" | grep -E "Requests/sec|99%"
+    echo "== $mode, $c connections: GET /myAccount?id=1 (JWT + JDBC)"
+    wrk -t8 -c"$c" -d"$DURATION" --latency -H "Authorization: $jwt" "http://localhost:$PORT/myAccount?id=1" | grep -E "Requests/sec|99%"
+  done
+
+  kill "$pid"
+  wait "$pid" || true
+}
+
+#Platform threads: Tomcat's fixed pool of 200 workers
+run platform default
+#Virtual threads: one virtual thread per request, concurrency limited by the Hikari pool
+run virtual default,virtual
@@ -0,0 +1,11 @@
+package com.example.SpringSecurity.audit;
+
+import java.time.Instant;
+
+public record AuditEvent(Instant time, AuditEventType type, String principal, String detail) {
+
+    public static AuditEvent of(AuditEventType type, String principal, String detail) {
+        return new AuditEvent(Instant.now(), type, principal, detail);
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.example.SpringSecurity.audit;
+
+public enum AuditEventType {
+
+    // Routine events are sampled (audit.success-sample-rate), failures are always kept.
+    AUTHENTICATION_ATTEMPT(false),
+    REQUEST_AUTHENTICATED(false),
+    AUTHENTICATION_SUCCESS(false),
+    AUTHENTICATION_FAILURE(true),
+    AUTHORIZATION_FAILURE(true);
+
+    private final boolean failure;
+
+    AuditEventType(boolean failure) {
+        this.failure = failure;
+    }
+
+    public boolean isFailure() {
+        return failure;
+    }
+
+}
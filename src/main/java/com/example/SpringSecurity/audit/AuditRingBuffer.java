@@ -0,0 +1,77 @@
+package com.example.SpringSecurity.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+class AuditRingBuffer {
+
+    // Bounded lock-free queue for many producers (request threads) and one consumer (the audit writer thread).
+    // Every slot has a sequence number that says whose turn it is: a producer may fill slot i when its sequence is equal
+    // to the producer's ticket, and the consumer may empty it when the sequence is ticket + 1. A producer claims a ticket
+    // with one CAS on the tail, so producers never block each other and a full buffer is detected without waiting.
+
+    private final int mask;
+    private final AtomicReferenceArray<AuditEvent> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head; // written only by the consumer
+
+    AuditRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    // false when the buffer is full
+    boolean offer(AuditEvent event) {
+        while (true) {
+            long ticket = tail.get();
+            int index = (int) (ticket & mask);
+            long sequence = sequences.get(index);
+            if (sequence == ticket) {
+                if (tail.compareAndSet(ticket, ticket + 1)) {
+                    slots.lazySet(index, event);
+                    sequences.set(index, ticket + 1);
+                    return true;
+                }
+            } else if (sequence < ticket) {
+                return false;
+            }
+            // another producer took this ticket, read the tail again
+        }
+    }
+
+    // Consumer only. Moves up to max events into the batch and returns how many were moved.
+    int drainTo(List<AuditEvent> batch, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            batch.add(slots.get(index));
+            slots.lazySet(index, null);
+            sequences.set(index, position + mask + 1);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.example.SpringSecurity.audit;
+
+import java.util.List;
+
+// Called only from the audit writer thread, so implementations do not have to be thread safe.
+interface AuditWriter extends AutoCloseable {
+
+    void write(List<AuditEvent> batch) throws Exception;
+
+    @Override
+    default void close() throws Exception {
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.example.SpringSecurity.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+class FileAuditWriter implements AuditWriter {
+
+    // One JSON object per line, one file per day (audit-2024-09-15.log). The file is flushed once per batch, not per event.
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private LocalDate currentDay;
+    private BufferedWriter writer;
+
+    FileAuditWriter(Path directory, ObjectMapper objectMapper) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void write(List<AuditEvent> batch) throws IOException {
+        for (AuditEvent event : batch) {
+            LocalDate day = LocalDate.ofInstant(event.time(), ZoneOffset.UTC);
+            if (!day.equals(currentDay)) {
+                roll(day);
+            }
+            writer.write(objectMapper.writeValueAsString(event));
+            writer.newLine();
+        }
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    private void roll(LocalDate day) throws IOException {
+        close();
+        Files.createDirectories(directory);
+        writer = Files.newBufferedWriter(directory.resolve("audit-" + day + ".log"), StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        currentDay = day;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+}
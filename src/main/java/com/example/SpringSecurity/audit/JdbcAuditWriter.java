@@ -0,0 +1,33 @@
+package com.example.SpringSecurity.audit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+class JdbcAuditWriter implements AuditWriter {
+
+    // A whole batch is one JDBC batch insert into audit_events (see script_new.sql).
+
+    private static final String INSERT_SQL =
+            "INSERT INTO audit_events (event_time, event_type, principal, detail) VALUES (?, ?, ?, ?)";
+    private static final int DETAIL_LENGTH = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    JdbcAuditWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void write(List<AuditEvent> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> {
+            ps.setTimestamp(1, Timestamp.from(event.time()));
+            ps.setString(2, event.type().name());
+            ps.setString(3, event.principal());
+            String detail = event.detail();
+            ps.setString(4, detail != null && detail.length() > DETAIL_LENGTH ? detail.substring(0, DETAIL_LENGTH) : detail);
+        });
+    }
+
+}
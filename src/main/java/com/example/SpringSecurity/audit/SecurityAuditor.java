@@ -0,0 +1,146 @@
+package com.example.SpringSecurity.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+@Slf4j
+@Service
+public class SecurityAuditor {
+
+    // Security audit pipeline. Request threads only put an AuditEvent into a lock-free ring buffer, the file or database
+    // I/O happens on a single background thread that writes the events in batches. This replaces the INFO/ERROR logging
+    // that the filters and event listeners used to do on the request thread.
+    // - Routine successes are sampled with audit.success-sample-rate (1.0 keeps all, 0.0 keeps none). Callers ask
+    //   sampleSuccess() first, so a dropped success does not even build its detail string.
+    // - Failures are always kept. When the buffer is full, a failure waits up to audit.failure-backpressure for the
+    //   writer to make room; a success is dropped at once. Every drop is counted in audit.events{result=dropped}.
+    // audit.sink: file (daily rolling JSON lines in audit.file.directory), jdbc (audit_events table) or none.
+
+    private final AuditRingBuffer buffer;
+    private final AuditWriter writer;
+    private final double successSampleRate;
+    private final long failureBackpressureNanos;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter writeErrors;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    public SecurityAuditor(@Value("${audit.sink:file}") String sink,
+                           @Value("${audit.file.directory:logs/audit}") String directory,
+                           @Value("${audit.buffer-size:8192}") int bufferSize,
+                           @Value("${audit.batch-size:256}") int batchSize,
+                           @Value("${audit.flush-interval:PT0.2S}") Duration flushInterval,
+                           @Value("${audit.success-sample-rate:0.01}") double successSampleRate,
+                           @Value("${audit.failure-backpressure:PT0.005S}") Duration failureBackpressure,
+                           ObjectProvider<JdbcTemplate> jdbcTemplate, ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+        this.buffer = new AuditRingBuffer(bufferSize);
+        this.writer = switch (sink) {
+            case "file" -> new FileAuditWriter(Path.of(directory), objectMapper);
+            case "jdbc" -> new JdbcAuditWriter(jdbcTemplate.getObject());
+            case "none" -> batch -> { };
+            default -> throw new IllegalArgumentException("Unknown audit.sink: " + sink);
+        };
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.successSampleRate = successSampleRate;
+        this.failureBackpressureNanos = failureBackpressure.toNanos();
+        this.written = meterRegistry.counter("audit.events", "result", "written");
+        this.dropped = meterRegistry.counter("audit.events", "result", "dropped");
+        this.writeErrors = meterRegistry.counter("audit.events", "result", "error");
+        Gauge.builder("audit.buffer.size", buffer, AuditRingBuffer::size).register(meterRegistry);
+        this.writerThread = new Thread(this::writeLoop, "security-audit-writer");
+        this.writerThread.setDaemon(true);
+    }
+
+    @PostConstruct
+    void start() {
+        writerThread.start();
+    }
+
+    public boolean sampleSuccess() {
+        return successSampleRate >= 1.0
+                || (successSampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < successSampleRate);
+    }
+
+    public void record(AuditEventType type, String principal, String detail) {
+        AuditEvent event = AuditEvent.of(type, principal, detail);
+        if (buffer.offer(event)) {
+            return;
+        }
+        if (type.isFailure()) {
+            long deadline = System.nanoTime() + failureBackpressureNanos;
+            while (System.nanoTime() < deadline) {
+                LockSupport.unpark(writerThread);
+                Thread.onSpinWait();
+                if (buffer.offer(event)) {
+                    return;
+                }
+            }
+        }
+        dropped.increment();
+    }
+
+    private void writeLoop() {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            if (buffer.drainTo(batch, batchSize) == 0) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                continue;
+            }
+            flush(batch);
+        }
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+        }
+        // Closed here, after the last batch, so the writer is never closed while this thread is still using it
+        try {
+            writer.close();
+        } catch (Exception ex) {
+            log.error("Could not close the audit writer: {}", ex.getMessage());
+        }
+    }
+
+    private void flush(List<AuditEvent> batch) {
+        try {
+            writer.write(batch);
+            written.increment(batch.size());
+        } catch (Exception ex) {
+            writeErrors.increment(batch.size());
+            log.error("Could not write {} audit events: {}", batch.size(), ex.getMessage());
+        }
+        batch.clear();
+    }
+
+    // Drains what is still in the buffer before the application (and the DataSource) shuts down.
+    // The writer thread closes the writer when it is done; if it is still writing after 5 seconds it is left alone.
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(Duration.ofSeconds(5).toMillis());
+        if (writerThread.isAlive()) {
+            log.warn("The audit writer did not finish within 5 seconds, {} events are still in the buffer", buffer.size());
+        }
+    }
+
+}
@@ -1,6 +1,8 @@
 package com.example.SpringSecurity.config;
 
+import com.example.SpringSecurity.service.CredentialVerificationCache;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Profile;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -8,12 +10,14 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
 // This been is activated when the prod profile is active
 
+@Slf4j
 @Component
 @Profile("prod")
 @RequiredArgsConstructor
@@ -21,13 +25,21 @@ public class EazyBankProdUsernamePasswordAuthenticationProvider implements Authe
 
     private final UserDetailsService userDetailsService;
     private final PasswordEncoder passwordEncoder;
+    private final CredentialVerificationCache credentialVerificationCache;
+    private final UserDetailsPasswordService userDetailsPasswordService;
 
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
         String username = authentication.getName();
         String pwd = authentication.getCredentials().toString();
         UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        // Credentials that passed the bcrypt check a moment ago are verified with one HMAC (security.credential-cache.enabled)
+        if(credentialVerificationCache.matches(username,pwd,userDetails.getPassword())){
+            return new UsernamePasswordAuthenticationToken(username,pwd,userDetails.getAuthorities());
+        }
         if(passwordEncoder.matches(pwd,userDetails.getPassword())){
+            userDetails = upgradePasswordIfNeeded(userDetails, pwd);
+            credentialVerificationCache.put(username,pwd,userDetails.getPassword());
             // Fetch Age details and perform validation to check if age > 18
             return new UsernamePasswordAuthenticationToken(username,pwd,userDetails.getAuthorities());
         } else {
@@ -35,6 +47,20 @@ public class EazyBankProdUsernamePasswordAuthenticationProvider implements Authe
         }
     }
 
+    // Only here the raw password is known to be correct, so this is the moment to re-hash it with the current algorithm and cost.
+    // A failed upgrade (for example a full hashing pool) does not fail the login, it is simply tried again next time.
+    private UserDetails upgradePasswordIfNeeded(UserDetails userDetails, String pwd) {
+        if (!passwordEncoder.upgradeEncoding(userDetails.getPassword())) {
+            return userDetails;
+        }
+        try {
+            return userDetailsPasswordService.updatePassword(userDetails, passwordEncoder.encode(pwd));
+        } catch (RuntimeException ex) {
+            log.warn("Could not upgrade the password hash of {}: {}", userDetails.getUsername(), ex.getMessage());
+            return userDetails;
+        }
+    }
+
     @Override
     public boolean supports(Class<?> authentication) {
         return (UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication));
@@ -1,37 +1,75 @@
 package com.example.SpringSecurity.config;
 
 import com.example.SpringSecurity.model.Customer;
+import com.example.SpringSecurity.model.CustomerAuthRow;
 import com.example.SpringSecurity.repository.CustomerRepository;
+import com.example.SpringSecurity.service.AuthorityRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
-public class EazyBankUserDetailsService implements UserDetailsService {
+public class EazyBankUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final CustomerRepository customerRepository;
+    private final AuthorityRegistry authorityRegistry;
+    private final UserCache userCache;
 
     @Autowired
-    public EazyBankUserDetailsService(CustomerRepository customerRepository){
+    public EazyBankUserDetailsService(CustomerRepository customerRepository, AuthorityRegistry authorityRegistry,
+                                      UserCache userCache){
         this.customerRepository = customerRepository;
+        this.authorityRegistry = authorityRegistry;
+        this.userCache = userCache;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Customer customer = customerRepository.findByEmail(username).orElseThrow(() ->
-            new UsernameNotFoundException("User details not found for the user: " + username));
-        List<GrantedAuthority> authorities =  (customer.getAuthorities().stream()
-                .map(authority -> new SimpleGrantedAuthority(authority.getName()))
-                .collect(Collectors.toList()));
-        return new User(customer.getEmail(), customer.getPwd(), authorities);
+        // The cache is checked first, see CaffeineUserCache (security.user-cache.enabled)
+        UserDetails cachedUser = userCache.getUserFromCache(username);
+        if (cachedUser != null) {
+            return cachedUser;
+        }
+        List<CustomerAuthRow> rows = customerRepository.findAuthRowsByEmail(username);
+        if (rows.isEmpty()) {
+            throw new UsernameNotFoundException("User details not found for the user: " + username);
+        }
+        List<String> authorityNames = new ArrayList<>(rows.size());
+        for (CustomerAuthRow row : rows) {
+            if (row.getAuthority() != null) {
+                authorityNames.add(row.getAuthority());
+            }
+        }
+        // The same shared authority objects are used here and in JWTTokenValidatorFilter
+        Collection<GrantedAuthority> authorities = authorityRegistry.resolve(authorityNames);
+        CustomerAuthRow customer = rows.get(0);
+        UserDetails user = new User(customer.getEmail(), customer.getPwd(), authorities);
+        userCache.putUserInCache(user);
+        return user;
+    }
+
+    // Called by the prod AuthenticationProvider after a successful login when the stored hash uses an older algorithm
+    // or a lower cost than PasswordEncoderTuner is configured with. newPassword is already encoded.
+    // Saving the customer evicts it from the caches (UserCacheInvalidator).
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Customer customer = customerRepository.findByEmail(user.getUsername()).orElseThrow(() ->
+            new UsernameNotFoundException("User details not found for the user: " + user.getUsername()));
+        customer.setPwd(newPassword);
+        customerRepository.save(customer);
+        return User.withUserDetails(user).password(newPassword).build();
     }
 
 }
@@ -0,0 +1,32 @@
+package com.example.SpringSecurity.config;
+
+import com.example.SpringSecurity.metrics.FilterTimingRecorder;
+import com.example.SpringSecurity.metrics.TimingFilterChainDecorator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.web.FilterChainProxy;
+
+@Configuration
+public class FilterTimingConfig {
+
+    // The springSecurityFilterChain bean is created by Spring Security itself, so the timing decorator is set on it
+    // after creation. Every filter of the chain is timed this way, the six custom filters of ProjectSecurityConfig
+    // and ProjectSecurityProdConfig as well as Spring's own (tag custom=true/false).
+    // The method is static so that the post processor does not force the early creation of this configuration.
+
+    @Bean
+    static BeanPostProcessor filterTimingBeanPostProcessor(ObjectProvider<FilterTimingRecorder> recorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof FilterChainProxy filterChainProxy) {
+                    filterChainProxy.setFilterChainDecorator(new TimingFilterChainDecorator(recorder.getObject()));
+                }
+                return bean;
+            }
+        };
+    }
+
+}
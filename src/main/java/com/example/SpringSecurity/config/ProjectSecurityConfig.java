@@ -1,28 +1,41 @@
 package com.example.SpringSecurity.config;
 
+import com.example.SpringSecurity.audit.SecurityAuditor;
 import com.example.SpringSecurity.exceptionhandling.CustomAccessDeniedHandler;
 import com.example.SpringSecurity.exceptionhandling.CustomBasicAuthenticationEntryPoint;
 import com.example.SpringSecurity.filter.*;
+import com.example.SpringSecurity.service.BoundedPasswordEncoder;
+import com.example.SpringSecurity.service.CompromisedPasswordCheckers;
+import com.example.SpringSecurity.service.JWTIssuancePolicy;
+import com.example.SpringSecurity.service.JWTTokenCache;
+import com.example.SpringSecurity.service.JWTTokenService;
+import com.example.SpringSecurity.service.LoginRateLimiter;
+import com.example.SpringSecurity.service.PasswordEncoderTuner;
+import com.example.SpringSecurity.service.RefreshTokenService;
+import com.example.SpringSecurity.service.TokenRevocationService;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.AuthenticationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.password.CompromisedPasswordChecker;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
-import org.springframework.security.web.authentication.password.HaveIBeenPwnedRestApiPasswordChecker;
+import org.springframework.security.web.authentication.logout.HttpStatusReturningLogoutSuccessHandler;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.security.web.csrf.CsrfTokenRequestAttributeHandler;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 
@@ -94,7 +107,13 @@ public class ProjectSecurityConfig {
     // Roles must be registered in the database table with the ROLE_ prefix, but there is no need to use this prefix in the Spring Security configuration, as Spring Security adds it automatically.
 
     @Bean
-    SecurityFilterChain defaultSecurityFilterChain(HttpSecurity http) throws Exception {
+    SecurityFilterChain defaultSecurityFilterChain(HttpSecurity http, JWTTokenService jwtTokenService,
+                                                   JWTTokenCache jwtTokenCache,
+                                                   TokenRevocationService tokenRevocationService,
+                                                   RefreshTokenService refreshTokenService,
+                                                   JWTIssuancePolicy jwtIssuancePolicy,
+                                                   SecurityAuditor securityAuditor,
+                                                   LoginRateLimiter loginRateLimiter) throws Exception {
         // The task of this class is to read the CSRF token from the incoming requests and add it as
         // an attribute to the requests. This handler reads the CSRF token from the header or request parameters.
         CsrfTokenRequestAttributeHandler csrfTokenRequestAttributeHandler = new CsrfTokenRequestAttributeHandler();
@@ -125,7 +144,7 @@ public class ProjectSecurityConfig {
                         corsConfiguration.setAllowedMethods(Collections.singletonList("*"));
                         corsConfiguration.setAllowCredentials(true); // This line determines whether identity information (such as cookies or authentication tokens) is allowed to be sent with CORS requests.
                         corsConfiguration.setAllowedHeaders(Collections.singletonList("*")); // The client can send different headers
-                        corsConfiguration.setExposedHeaders(List.of("Authorization")); // The headers that the backend can send to the frontend
+                        corsConfiguration.setExposedHeaders(List.of("Authorization","Refresh-Token","X-Next-Cursor")); // The headers that the backend can send to the frontend
                         corsConfiguration.setMaxAge(3600L); // This line determines when the browser can cache CORS settings.
                         // In this example, by setting the value to 3600L (which equals 3600 seconds or one hour),
                         // the browser can cache this setting for one hour. This means that for subsequent requests from the same origin,
@@ -138,30 +157,36 @@ public class ProjectSecurityConfig {
                 // When a cookie is created, this value is set correctly. If it is set true, only the browser has access to this cookie and sends it in every request,
                 // because JavaScript needs to read this value from the cookies and put it in the header or body of the request. The value must be false
                 .csrf(csrfConfig -> csrfConfig.csrfTokenRequestHandler(csrfTokenRequestAttributeHandler)
-                        .ignoringRequestMatchers("/contact","/register","/apiLogin")
+                        .ignoringRequestMatchers("/contact","/register","/apiLogin","/apiRefresh","/logout")
                         .csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse()))
                 // This code adds the CSRF filter after the BasicAuthenticationFilter. The reason for this arrangement
                 // is that authentication must be done first so that we can generate the CSRF token for subsequent requests.
                 .addFilterAfter(new CsrfTokenFilter(), BasicAuthenticationFilter.class)
                 .addFilterBefore(new RequestValidationBeforeFilter(), BasicAuthenticationFilter.class)
-                .addFilterAfter(new AuthoritiesLoggingAfterFilter(),BasicAuthenticationFilter.class)
-                .addFilterAt(new AuthoritiesLoggingAtFilter(), BasicAuthenticationFilter.class)
-                .addFilterAfter(new JWTTokenGeneratorFilter(), BasicAuthenticationFilter.class)
-                .addFilterBefore(new JWTTokenValidatorFilter(), BasicAuthenticationFilter.class)
+                .addFilterBefore(new LoginRateLimitFilter(loginRateLimiter, new CustomBasicAuthenticationEntryPoint()), BasicAuthenticationFilter.class)
+                .addFilterAfter(new AuthoritiesLoggingAfterFilter(securityAuditor),BasicAuthenticationFilter.class)
+                .addFilterAt(new AuthoritiesLoggingAtFilter(securityAuditor), BasicAuthenticationFilter.class)
+                .addFilterAfter(new JWTTokenGeneratorFilter(jwtTokenService, refreshTokenService, jwtIssuancePolicy), BasicAuthenticationFilter.class)
+                .addFilterBefore(new JWTTokenValidatorFilter(jwtTokenService, jwtTokenCache, tokenRevocationService), BasicAuthenticationFilter.class)
                 .authorizeHttpRequests((requests) -> requests
 //                .requestMatchers("myAccount").hasAuthority("VIEWACCOUNT")
 //                .requestMatchers("myBalance").hasAnyAuthority("VIEWBALANCE","VIEWACCOUNT")
 //                .requestMatchers("myLoans").hasAuthority("VIEWLOANS")
 //                .requestMatchers("myCards").hasAuthority("VIEWCARDS")
-                .requestMatchers("myAccount").hasRole("USER")
-                .requestMatchers("myBalance").hasAnyRole("USER","ADMIN")
+                .requestMatchers("myAccount","myAccountSummary","myDashboard").hasRole("USER")
+                .requestMatchers("myBalance","/myBalance/export").hasAnyRole("USER","ADMIN")
                 .requestMatchers("myLoans").authenticated()
                 .requestMatchers("myCards").hasRole("USER")
                 .requestMatchers("/user").authenticated()
-                .requestMatchers("notices","contact","/error","/register","/invalidSession","/apiLogin").permitAll());
+                .requestMatchers("/actuator/**","/admin/**").hasRole("ADMIN")
+                .requestMatchers("notices","contact","/error","/register","/invalidSession","/apiLogin","/apiRefresh",
+                        "/.well-known/jwks.json").permitAll());
         // It is deprecated and cannot be disabled with the disable method, we must disable its entry
         // http.formLogin(flc -> flc.disable());
         http.formLogin(withDefaults());
+        // POST /logout revokes the JWT of the request and answers 200 instead of redirecting to the login page
+        http.logout(lc -> lc.addLogoutHandler(new JWTLogoutHandler(jwtTokenService, tokenRevocationService, refreshTokenService))
+                .logoutSuccessHandler(new HttpStatusReturningLogoutSuccessHandler()));
         http.httpBasic(hbc -> hbc.authenticationEntryPoint(new CustomBasicAuthenticationEntryPoint()));
         http.exceptionHandling(ehc -> ehc.accessDeniedHandler(new CustomAccessDeniedHandler()));
         return http.build();
@@ -324,10 +349,17 @@ public class ProjectSecurityConfig {
     // There is a lot of emphasis on the point that you should use delegating password encoder and never use a special encoder like bcrypt as hardware in the code.
     // The advantage of delegating password encoder is that if new hash algorithms are introduced in the next versions of Spring Security, there is no need to change the code. Spring Security itself selects the appropriate algorithm according to the hash prefix.
 
+    // The hashing runs on its own bounded pool, see BoundedPasswordEncoder
     @Bean
-    public PasswordEncoder passwordEncoder(){
+    public PasswordEncoder passwordEncoder(PasswordEncoderTuner passwordEncoderTuner,
+                                           @Value("${security.password-hashing.pool-size:4}") int poolSize,
+                                           @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${security.password-hashing.timeout:PT5S}") Duration timeout,
+                                           @Value("${security.password-hashing.retry-after:PT1S}") Duration retryAfter,
+                                           MeterRegistry meterRegistry){
         //return new BCryptPasswordEncoder();
-        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+        return new BoundedPasswordEncoder(passwordEncoderTuner.createPasswordEncoder(),
+                poolSize, queueCapacity, timeout, retryAfter, meterRegistry);
     }
 
     /**
@@ -336,16 +368,24 @@ public class ProjectSecurityConfig {
     // CompromisedPasswordChecker: An API for checking if a password has been compromised
     // When you enter the simple password, it gives this message (The provided password is compromised, please change your password)
     @Bean
-    public CompromisedPasswordChecker compromisedPasswordChecker(){
-        return new HaveIBeenPwnedRestApiPasswordChecker();
+    public CompromisedPasswordChecker compromisedPasswordChecker(
+            @Value("${security.compromised-password.checker:offline}") String checker,
+            @Value("${security.compromised-password.corpus:pwned-passwords.bin}") String corpus,
+            @Value("${security.compromised-password.rest-fallback:false}") boolean restFallback,
+            @Value("${security.compromised-password.rest-timeout:PT2S}") Duration restTimeout){
+        // offline (memory-mapped local corpus), rest or none, see CompromisedPasswordCheckers
+        return CompromisedPasswordCheckers.create(checker, corpus, restFallback, restTimeout);
     }
 
     // We need AuthenticationManager to authenticate manually
     @Bean
-    public AuthenticationManager authenticationManager(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder){
+    public AuthenticationManager authenticationManager(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder,
+                                                       AuthenticationEventPublisher authenticationEventPublisher){
         EazyBankUsernamePasswordAuthenticationProvider authenticationProvider =
                 new EazyBankUsernamePasswordAuthenticationProvider(userDetailsService, passwordEncoder);
         ProviderManager providerManager = new ProviderManager(authenticationProvider);
+        // Without a publisher a new ProviderManager publishes nothing, and AuthenticationEvents would never be called
+        providerManager.setAuthenticationEventPublisher(authenticationEventPublisher);
         providerManager.setEraseCredentialsAfterAuthentication(false); // providerManager does not delete the password in the authentication object, we may need it later
         return providerManager;
     }
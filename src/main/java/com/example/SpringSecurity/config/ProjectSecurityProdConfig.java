@@ -1,28 +1,43 @@
 package com.example.SpringSecurity.config;
 
+import com.example.SpringSecurity.audit.SecurityAuditor;
 import com.example.SpringSecurity.exceptionhandling.CustomAccessDeniedHandler;
 import com.example.SpringSecurity.exceptionhandling.CustomBasicAuthenticationEntryPoint;
 import com.example.SpringSecurity.filter.*;
+import com.example.SpringSecurity.service.BoundedPasswordEncoder;
+import com.example.SpringSecurity.service.CompromisedPasswordCheckers;
+import com.example.SpringSecurity.service.CredentialVerificationCache;
+import com.example.SpringSecurity.service.JWTIssuancePolicy;
+import com.example.SpringSecurity.service.JWTTokenCache;
+import com.example.SpringSecurity.service.JWTTokenService;
+import com.example.SpringSecurity.service.LoginRateLimiter;
+import com.example.SpringSecurity.service.PasswordEncoderTuner;
+import com.example.SpringSecurity.service.RefreshTokenService;
+import com.example.SpringSecurity.service.TokenRevocationService;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.security.authentication.AuthenticationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.password.CompromisedPasswordChecker;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
-import org.springframework.security.web.authentication.password.HaveIBeenPwnedRestApiPasswordChecker;
+import org.springframework.security.web.authentication.logout.HttpStatusReturningLogoutSuccessHandler;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 import org.springframework.security.web.csrf.CsrfTokenRequestAttributeHandler;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 
@@ -143,7 +158,13 @@ public class ProjectSecurityProdConfig {
     // When the user clicks on the link, the form is submitted automatically and the browser adds the abc123 cookie to the request.
 
     @Bean
-    SecurityFilterChain defaultSecurityFilterChain(HttpSecurity http) throws Exception {
+    SecurityFilterChain defaultSecurityFilterChain(HttpSecurity http, JWTTokenService jwtTokenService,
+                                                   JWTTokenCache jwtTokenCache,
+                                                   TokenRevocationService tokenRevocationService,
+                                                   RefreshTokenService refreshTokenService,
+                                                   JWTIssuancePolicy jwtIssuancePolicy,
+                                                   SecurityAuditor securityAuditor,
+                                                   LoginRateLimiter loginRateLimiter) throws Exception {
         // http.authorizeHttpRequests((requests) -> requests.anyRequest().permitAll());
         // http.authorizeHttpRequests((requests) -> requests.anyRequest().denyAll());
         CsrfTokenRequestAttributeHandler csrfTokenRequestAttributeHandler = new CsrfTokenRequestAttributeHandler();
@@ -156,59 +177,83 @@ public class ProjectSecurityProdConfig {
                         corsConfiguration.setAllowedMethods(Collections.singletonList("*"));
                         corsConfiguration.setAllowCredentials(true);
                         corsConfiguration.setAllowedHeaders(Collections.singletonList("*"));
-                        corsConfiguration.setExposedHeaders(List.of("Authorization"));
+                        corsConfiguration.setExposedHeaders(List.of("Authorization","Refresh-Token","X-Next-Cursor"));
                         corsConfiguration.setMaxAge(3600L);
                         return corsConfiguration;
                     }
                 }))
                 .requiresChannel(rcc -> rcc.anyRequest().requiresSecure()) // Only HTTPS
                 .csrf(csrfConfig -> csrfConfig.csrfTokenRequestHandler(csrfTokenRequestAttributeHandler)
-                        .ignoringRequestMatchers("/contact","/register","/apiLogin")
+                        .ignoringRequestMatchers("/contact","/register","/apiLogin","/apiRefresh","/logout")
                         .csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse()))
                  .addFilterAfter(new CsrfTokenFilter(), BasicAuthenticationFilter.class)
                  .addFilterBefore(new RequestValidationBeforeFilter(), BasicAuthenticationFilter.class)
-                 .addFilterAfter(new AuthoritiesLoggingAfterFilter(),BasicAuthenticationFilter.class)
-                 .addFilterAt(new AuthoritiesLoggingAtFilter(), BasicAuthenticationFilter.class)
-                 .addFilterAfter(new JWTTokenGeneratorFilter(), BasicAuthenticationFilter.class)
-                 .addFilterBefore(new JWTTokenValidatorFilter(), BasicAuthenticationFilter.class)
+                 .addFilterBefore(new LoginRateLimitFilter(loginRateLimiter, new CustomBasicAuthenticationEntryPoint()), BasicAuthenticationFilter.class)
+                 .addFilterAfter(new AuthoritiesLoggingAfterFilter(securityAuditor),BasicAuthenticationFilter.class)
+                 .addFilterAt(new AuthoritiesLoggingAtFilter(securityAuditor), BasicAuthenticationFilter.class)
+                 .addFilterAfter(new JWTTokenGeneratorFilter(jwtTokenService, refreshTokenService, jwtIssuancePolicy), BasicAuthenticationFilter.class)
+                 .addFilterBefore(new JWTTokenValidatorFilter(jwtTokenService, jwtTokenCache, tokenRevocationService), BasicAuthenticationFilter.class)
                 .authorizeHttpRequests((requests) -> requests
 //                                .requestMatchers("myAccount").hasAuthority("VIEWACCOUNT")
 //                .requestMatchers("myBalance").hasAnyAuthority("VIEWBALANCE","VIEWACCOUNT")
 //                .requestMatchers("myLoans").hasAuthority("VIEWLOANS")
 //                .requestMatchers("myCards").hasAuthority("VIEWCARDS")
-                .requestMatchers("myAccount").hasRole("USER")
-                .requestMatchers("myBalance").hasAnyRole("USER","ADMIN")
+                .requestMatchers("myAccount","myAccountSummary","myDashboard").hasRole("USER")
+                .requestMatchers("myBalance","/myBalance/export").hasAnyRole("USER","ADMIN")
                 .requestMatchers("myLoans").hasRole("USER")
                 .requestMatchers("myCards").hasRole("USER")
                 .requestMatchers("/user").authenticated()
-                .requestMatchers("notices","contact","/error","/register","/invalidSession","/apiLogin").permitAll());
+                .requestMatchers("/actuator/**","/admin/**").hasRole("ADMIN")
+                .requestMatchers("notices","contact","/error","/register","/invalidSession","/apiLogin","/apiRefresh",
+                        "/.well-known/jwks.json").permitAll());
         // It is deprecated and cannot be disabled with the disable method, we must disable its entry
         // http.formLogin(flc -> flc.disable());
         http.formLogin(withDefaults());
+        // POST /logout revokes the JWT of the request and answers 200 instead of redirecting to the login page
+        http.logout(lc -> lc.addLogoutHandler(new JWTLogoutHandler(jwtTokenService, tokenRevocationService, refreshTokenService))
+                .logoutSuccessHandler(new HttpStatusReturningLogoutSuccessHandler()));
         http.httpBasic(hbc -> hbc.authenticationEntryPoint(new CustomBasicAuthenticationEntryPoint()));
         http.exceptionHandling(ehc -> ehc.accessDeniedHandler(new CustomAccessDeniedHandler()));
         return http.build();
     }
 
+    // The hashing runs on its own bounded pool, see BoundedPasswordEncoder
     @Bean
-    public PasswordEncoder passwordEncoder(){
+    public PasswordEncoder passwordEncoder(PasswordEncoderTuner passwordEncoderTuner,
+                                           @Value("${security.password-hashing.pool-size:4}") int poolSize,
+                                           @Value("${security.password-hashing.queue-capacity:64}") int queueCapacity,
+                                           @Value("${security.password-hashing.timeout:PT5S}") Duration timeout,
+                                           @Value("${security.password-hashing.retry-after:PT1S}") Duration retryAfter,
+                                           MeterRegistry meterRegistry){
         //return new BCryptPasswordEncoder();
-        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+        return new BoundedPasswordEncoder(passwordEncoderTuner.createPasswordEncoder(),
+                poolSize, queueCapacity, timeout, retryAfter, meterRegistry);
     }
 
     /**
      * From Spring  Security 6.3 version
      */
     @Bean
-    public CompromisedPasswordChecker compromisedPasswordChecker(){
-        return new HaveIBeenPwnedRestApiPasswordChecker();
+    public CompromisedPasswordChecker compromisedPasswordChecker(
+            @Value("${security.compromised-password.checker:offline}") String checker,
+            @Value("${security.compromised-password.corpus:pwned-passwords.bin}") String corpus,
+            @Value("${security.compromised-password.rest-fallback:false}") boolean restFallback,
+            @Value("${security.compromised-password.rest-timeout:PT2S}") Duration restTimeout){
+        // offline (memory-mapped local corpus), rest or none, see CompromisedPasswordCheckers
+        return CompromisedPasswordCheckers.create(checker, corpus, restFallback, restTimeout);
     }
 
     @Bean
-    public AuthenticationManager authenticationManager(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder){
+    public AuthenticationManager authenticationManager(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder,
+                                                       AuthenticationEventPublisher authenticationEventPublisher,
+                                                       CredentialVerificationCache credentialVerificationCache,
+                                                       UserDetailsPasswordService userDetailsPasswordService){
         EazyBankProdUsernamePasswordAuthenticationProvider authenticationProvider =
-                new EazyBankProdUsernamePasswordAuthenticationProvider(userDetailsService, passwordEncoder);
+                new EazyBankProdUsernamePasswordAuthenticationProvider(userDetailsService, passwordEncoder,
+                        credentialVerificationCache, userDetailsPasswordService);
         ProviderManager providerManager = new ProviderManager(authenticationProvider);
+        // Without a publisher a new ProviderManager publishes nothing, and AuthenticationEvents would never be called
+        providerManager.setAuthenticationEventPublisher(authenticationEventPublisher);
         providerManager.setEraseCredentialsAfterAuthentication(false);
         return providerManager;
     }
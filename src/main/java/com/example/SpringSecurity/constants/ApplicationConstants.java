@@ -5,5 +5,8 @@ public final class ApplicationConstants {
     public static final String JWT_SECRET_KEY = "JWT_SECRET";
     public static final String JWT_SECRET_DEFAULT_VALUE = "jxgEQeXHuPq8VdbyYFNkANdudQ53yUn4";
     public static final String JWT_HEADER = "Authorization";
+    public static final String JWT_ISSUER = "Eazy Bank";
+    public static final String REFRESH_TOKEN_HEADER = "Refresh-Token";
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
 }
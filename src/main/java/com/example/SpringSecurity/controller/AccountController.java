@@ -1,11 +1,17 @@
 package com.example.SpringSecurity.controller;
 
 import com.example.SpringSecurity.model.Accounts;
+import com.example.SpringSecurity.model.CustomerAccountSummary;
 import com.example.SpringSecurity.repository.AccountsRepository;
+import com.example.SpringSecurity.service.AccountSummaryService;
+import com.example.SpringSecurity.service.CustomerDataVersions;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequiredArgsConstructor
@@ -44,10 +50,31 @@ public class AccountController {
     // this strategy is risky and can lead to security mistakes.
 
     private final AccountsRepository accountsRepository;
+    private final AccountSummaryService accountSummaryService;
+    private final CustomerDataVersions customerDataVersions;
 
+    // The ETag comes from the change counter of the customer (CustomerDataVersions). When the client already has this
+    // version it gets 304 Not Modified and the account is not even loaded. Otherwise the account and its ETag are read
+    // together (CustomerDataVersions.read), so the ETag always belongs to the data sent. no-cache makes clients always ask first.
     @GetMapping("/myAccount")
-    public Accounts getAccountDetails(@RequestParam long id){
-        return accountsRepository.findByCustomerId(id);
+    public ResponseEntity<Accounts> getAccountDetails(@RequestParam long id, WebRequest request){
+        String etag = customerDataVersions.etag(CustomerDataVersions.Resource.ACCOUNTS, id);
+        if (customerDataVersions.notModified(request, etag)) {
+            return null;
+        }
+        CustomerDataVersions.Versioned<Accounts> account = customerDataVersions.read(CustomerDataVersions.Resource.ACCOUNTS, id,
+                () -> accountsRepository.findByCustomerId(id));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(account.etag())
+                .body(account.data());
+    }
+
+    // Closing balance, card utilization and loan totals in one primary key lookup, instead of calling
+    // /myBalance, /myCards and /myLoans and adding them up on the client
+    @GetMapping("/myAccountSummary")
+    public CustomerAccountSummary getAccountSummary(@RequestParam long id){
+        return accountSummaryService.getSummary(id);
     }
 
 }
@@ -0,0 +1,54 @@
+package com.example.SpringSecurity.controller;
+
+import com.example.SpringSecurity.service.AccountSummaryService;
+import com.example.SpringSecurity.service.NoticeSnapshot;
+import com.example.SpringSecurity.service.RefreshTokenService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final RefreshTokenService refreshTokenService;
+    private final AccountSummaryService accountSummaryService;
+    private final NoticeSnapshot noticeSnapshot;
+
+    // Every access and refresh token issued to the user until now stops working, e.g. after a stolen device was reported
+    @PostMapping("/admin/users/{username}/revoke-tokens")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> revokeAllTokens(@PathVariable String username) {
+        refreshTokenService.revokeAllForUser(username);
+        return ResponseEntity.ok("All tokens of the user are revoked");
+    }
+
+    // Recomputes customer_account_summary for every customer
+    @PostMapping("/admin/account-summaries/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> rebuildAccountSummaries() {
+        long rebuilt = accountSummaryService.rebuildAll();
+        return ResponseEntity.ok(rebuilt + " account summaries rebuilt");
+    }
+
+    // Compares customer_account_summary with account_transactions, cards and loans without changing anything
+    @GetMapping("/admin/account-summaries/check")
+    @PreAuthorize("hasRole('ADMIN')")
+    public AccountSummaryService.ConsistencyReport checkAccountSummaries(@RequestParam(defaultValue = "100") int maxReported) {
+        return accountSummaryService.check(maxReported);
+    }
+
+    // Reloads the notices served by /notices, e.g. after notice_details was changed with SQL
+    @PostMapping("/admin/notices/refresh")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<String> refreshNotices() {
+        noticeSnapshot.refresh();
+        return ResponseEntity.ok("Notices reloaded");
+    }
+
+}
@@ -1,23 +1,95 @@
 package com.example.SpringSecurity.controller;
 
 import com.example.SpringSecurity.model.AccountTransactions;
+import com.example.SpringSecurity.constants.ApplicationConstants;
 import com.example.SpringSecurity.repository.AccountTransactionsRepository;
+import com.example.SpringSecurity.service.TransactionCursor;
+import com.example.SpringSecurity.service.TransactionExporter;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequiredArgsConstructor
 public class BalanceController {
 
     private final AccountTransactionsRepository accountTransactionsRepository;
+    private final TransactionExporter transactionExporter;
+
+    // The transactions are returned page by page, newest first. When there are more, the X-Next-Cursor header holds an
+    // opaque token: sending it back as ?cursor=... returns the next page. No header means this was the last page.
+    // One more row than the page size is read to know whether a next page exists, without a count query.
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
 
     @GetMapping("/myBalance")
-    public List<AccountTransactions> getBalanceDetails(@RequestParam long id){
-        return accountTransactionsRepository.findByCustomerIdOrderByTransactionDtDesc(id);
+    public ResponseEntity<List<AccountTransactions>> getBalanceDetails(@RequestParam long id,
+                                                                       @RequestParam(required = false) String cursor,
+                                                                       @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size){
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<AccountTransactions> transactions;
+        if (cursor == null || cursor.isEmpty()) {
+            transactions = accountTransactionsRepository.findFirstPage(id, Limit.of(pageSize + 1));
+        } else {
+            TransactionCursor position;
+            try {
+                position = TransactionCursor.decode(cursor);
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest().build();
+            }
+            if (position.customerId() != id) {
+                return ResponseEntity.badRequest().build();
+            }
+            transactions = accountTransactionsRepository.findPageAfter(id, position.transactionDt(),
+                    position.transactionId(), Limit.of(pageSize + 1));
+        }
+        if (transactions.size() <= pageSize) {
+            return ResponseEntity.ok(transactions);
+        }
+        List<AccountTransactions> page = transactions.subList(0, pageSize);
+        AccountTransactions last = page.get(pageSize - 1);
+        String nextCursor = new TransactionCursor(id, last.getTransactionDt(), last.getTransactionId()).encode();
+        return ResponseEntity.ok().header(ApplicationConstants.NEXT_CURSOR_HEADER, nextCursor).body(page);
+    }
+
+    // The full history for downloads and reconciliation jobs, oldest first, optionally limited to [from, to] (yyyy-MM-dd).
+    // The rows are written to the response while they are read from the database, so the response has no
+    // Content-Length (chunked) and the memory used does not depend on the number of rows.
+    @GetMapping("/myBalance/export")
+    public void exportTransactions(@RequestParam long id,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                   @RequestParam(defaultValue = "ndjson") String format,
+                                   HttpServletResponse response) throws IOException {
+        TransactionExporter.Format exportFormat;
+        try {
+            exportFormat = TransactionExporter.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "format must be ndjson or csv");
+            return;
+        }
+        if (from != null && to != null && from.isAfter(to)) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "from must not be after to");
+            return;
+        }
+        boolean csv = exportFormat == TransactionExporter.Format.CSV;
+        response.setContentType(csv ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"transactions-" + id + (csv ? ".csv" : ".ndjson") + "\"");
+        transactionExporter.export(id, from, to, exportFormat, response.getOutputStream());
     }
 
 }
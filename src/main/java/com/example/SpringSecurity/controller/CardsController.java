@@ -2,10 +2,14 @@ package com.example.SpringSecurity.controller;
 
 import com.example.SpringSecurity.model.Cards;
 import com.example.SpringSecurity.repository.CardsRepository;
+import com.example.SpringSecurity.service.CustomerDataVersions;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -14,10 +18,21 @@ import java.util.List;
 public class CardsController {
 
     private final CardsRepository cardsRepository;
+    private final CustomerDataVersions customerDataVersions;
 
+    // Conditional GET, see AccountController.getAccountDetails
     @GetMapping("/myCards")
-    public List<Cards> getCardsDetails(@RequestParam long id){
-        return cardsRepository.findByCustomerId(id);
+    public ResponseEntity<List<Cards>> getCardsDetails(@RequestParam long id, WebRequest request){
+        String etag = customerDataVersions.etag(CustomerDataVersions.Resource.CARDS, id);
+        if (customerDataVersions.notModified(request, etag)) {
+            return null;
+        }
+        CustomerDataVersions.Versioned<List<Cards>> cards = customerDataVersions.read(CustomerDataVersions.Resource.CARDS, id,
+                () -> cardsRepository.findByCustomerId(id));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(cards.etag())
+                .body(cards.data());
     }
 
 }
@@ -0,0 +1,63 @@
+package com.example.SpringSecurity.controller;
+
+import com.example.SpringSecurity.constants.ApplicationConstants;
+import com.example.SpringSecurity.model.AccountTransactions;
+import com.example.SpringSecurity.model.Accounts;
+import com.example.SpringSecurity.model.Cards;
+import com.example.SpringSecurity.model.DashboardDTO;
+import com.example.SpringSecurity.model.Loans;
+import com.example.SpringSecurity.service.DashboardExecutor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Future;
+
+@RestController
+@RequiredArgsConstructor
+public class DashboardController {
+
+    // The frontend used to call /myAccount, /myBalance, /myCards and /myLoans one after the other: four round trips,
+    // four passes through the security filter chain and four JWT verifications per page load.
+    // /myDashboard calls the four controllers at the same time and returns their results together.
+    // The calls go through the controller beans (their Spring proxies), not the repositories, so the method security
+    // of every part still applies: a user without ROLE_ROOT gets loans=null and errors.loans="forbidden",
+    // exactly as /myLoans answers 403. A part that fails or is slower than dashboard.part-timeout does not fail the others.
+
+    private final AccountController accountController;
+    private final BalanceController balanceController;
+    private final CardsController cardsController;
+    private final LoansController loansController;
+    private final DashboardExecutor dashboardExecutor;
+
+    @GetMapping("/myDashboard")
+    public DashboardDTO getDashboard(@RequestParam long id){
+        long deadline = dashboardExecutor.deadline();
+        // No WebRequest: the parts are always loaded, the dashboard as a whole has no ETag
+        Future<ResponseEntity<Accounts>> account = dashboardExecutor.submit(() -> accountController.getAccountDetails(id, null));
+        Future<ResponseEntity<List<AccountTransactions>>> balance =
+                dashboardExecutor.submit(() -> balanceController.getBalanceDetails(id, null, BalanceController.DEFAULT_PAGE_SIZE));
+        Future<ResponseEntity<List<Cards>>> cards = dashboardExecutor.submit(() -> cardsController.getCardsDetails(id, null));
+        Future<ResponseEntity<List<Loans>>> loans = dashboardExecutor.submit(() -> loansController.getLoansDetails(id, null));
+
+        Map<String, String> errors = new TreeMap<>();
+        ResponseEntity<Accounts> accountResult = dashboardExecutor.await("account", account, deadline, errors);
+        ResponseEntity<List<AccountTransactions>> balanceResult = dashboardExecutor.await("transactions", balance, deadline, errors);
+        ResponseEntity<List<Cards>> cardsResult = dashboardExecutor.await("cards", cards, deadline, errors);
+        ResponseEntity<List<Loans>> loansResult = dashboardExecutor.await("loans", loans, deadline, errors);
+        return new DashboardDTO(body(accountResult),
+                body(balanceResult),
+                balanceResult == null ? null : balanceResult.getHeaders().getFirst(ApplicationConstants.NEXT_CURSOR_HEADER),
+                body(cardsResult), body(loansResult), errors);
+    }
+
+    private static <T> T body(ResponseEntity<T> response) {
+        return response == null ? null : response.getBody();
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.example.SpringSecurity.controller;
+
+import com.example.SpringSecurity.service.JWTKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    // Publishes the public keys of the JWTKeyRing as a JSON Web Key Set, so other services can verify our tokens locally.
+    // The set only changes when the keystore changes (on restart), so clients may cache it for a while.
+    // In HS256 mode there is no public key and the set is empty.
+
+    private final JWTKeyRing keyRing;
+
+    @GetMapping(value = "/.well-known/jwks.json", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<String> getJwkSet() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(keyRing.getJwkSetJson());
+    }
+
+}
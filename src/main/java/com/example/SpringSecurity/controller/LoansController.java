@@ -2,11 +2,15 @@ package com.example.SpringSecurity.controller;
 
 import com.example.SpringSecurity.model.Loans;
 import com.example.SpringSecurity.repository.LoanRepository;
+import com.example.SpringSecurity.service.CustomerDataVersions;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PostAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -15,13 +19,24 @@ import java.util.List;
 public class LoansController {
 
     private final LoanRepository loanRepository;
+    private final CustomerDataVersions customerDataVersions;
 
     // @PostAuthorize is used to check user access after the method is executed. That is, first the method is executed and then access is checked based on the result.
     // This annotation is usually used when the necessary information to check access is not available until the end of the method execution.
+    // Conditional GET, see AccountController.getAccountDetails. @PostAuthorize is also checked after a 304.
     @GetMapping("/myLoans")
     @PostAuthorize("hasRole('ROOT')")
-    public List<Loans> getLoansDetails(@RequestParam long id){
-        return loanRepository.findByCustomerIdOrderByStartDtDesc(id);
+    public ResponseEntity<List<Loans>> getLoansDetails(@RequestParam long id, WebRequest request){
+        String etag = customerDataVersions.etag(CustomerDataVersions.Resource.LOANS, id);
+        if (customerDataVersions.notModified(request, etag)) {
+            return null;
+        }
+        CustomerDataVersions.Versioned<List<Loans>> loans = customerDataVersions.read(CustomerDataVersions.Resource.LOANS, id,
+                () -> loanRepository.findByCustomerIdOrderByStartDtDesc(id));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(loans.etag())
+                .body(loans.data());
     }
 
 }
@@ -1,14 +1,13 @@
 package com.example.SpringSecurity.controller;
 
-import com.example.SpringSecurity.model.Notice;
-import com.example.SpringSecurity.repository.NoticeRepository;
+import com.example.SpringSecurity.service.NoticeSnapshot;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 @RestController
@@ -49,25 +48,26 @@ public class NoticeController {
     // Access-Control-Allow-Headers: Specifies the allowed headers.
     // Errors: If the server does not respond or send the appropriate headers, the browser blocks the original request and issues a CORS error.
 
-    private final NoticeRepository noticeRepository;
+    private final NoticeSnapshot noticeSnapshot;
 
+    // The body is the JSON that NoticeSnapshot serialized in advance, so neither the database nor Jackson is used here.
+    // Because the response has an ETag, Spring MVC compares it with the If-None-Match header of the request
+    // and answers 304 Not Modified without a body when the client already has these notices.
     @GetMapping("/notices")
-    public ResponseEntity<List<Notice>> getNotices(){
-        List<Notice> notices = noticeRepository.findAllActiveNotices();
-        if(notices != null){
-            return ResponseEntity.ok()
-                    // This section adds the Cache-Control header to the response.
-                    // .cacheControl() allows you to specify how to cache responses.
-                    // CacheControl.maxAge(60, TimeUnit.SECONDS) says that this
-                    // response should be kept in the browser or server cache for 60 seconds.
-                    // This means that after receiving this response, the browser or
-                    // proxy server can save this response for 60 seconds
-                    // and prevent the server from sending the request again.
-                    .cacheControl(CacheControl.maxAge(60, TimeUnit.SECONDS))
-                    .body(notices);
-        } else {
-            return null;
-        }
+    public ResponseEntity<byte[]> getNotices(){
+        NoticeSnapshot.Snapshot notices = noticeSnapshot.get();
+        return ResponseEntity.ok()
+                // This section adds the Cache-Control header to the response.
+                // .cacheControl() allows you to specify how to cache responses.
+                // CacheControl.maxAge(60, TimeUnit.SECONDS) says that this
+                // response should be kept in the browser or server cache for 60 seconds.
+                // This means that after receiving this response, the browser or
+                // proxy server can save this response for 60 seconds
+                // and prevent the server from sending the request again.
+                .cacheControl(CacheControl.maxAge(60, TimeUnit.SECONDS))
+                .eTag(notices.etag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(notices.json());
     }
 
 }
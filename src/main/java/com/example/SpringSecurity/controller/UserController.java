@@ -1,31 +1,33 @@
 package com.example.SpringSecurity.controller;
 
 import com.example.SpringSecurity.constants.ApplicationConstants;
+import com.example.SpringSecurity.exceptionhandling.LoginRateLimitedException;
+import com.example.SpringSecurity.exceptionhandling.PasswordHashingBusyException;
 import com.example.SpringSecurity.model.Customer;
 import com.example.SpringSecurity.model.LoginRequestDTO;
 import com.example.SpringSecurity.model.LoginResponseDTO;
+import com.example.SpringSecurity.model.RefreshRequestDTO;
 import com.example.SpringSecurity.repository.CustomerRepository;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import com.example.SpringSecurity.service.JWTTokenService;
+import com.example.SpringSecurity.service.LoginRateLimiter;
+import com.example.SpringSecurity.service.RefreshTokenService;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.env.Environment;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.password.CompromisedPasswordChecker;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.sql.Date;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
@@ -34,15 +36,25 @@ public class UserController {
     private final CustomerRepository customerRepository;
     // This bean created in ProjectSecurityConfig class
     private final PasswordEncoder passwordEncoder;
+    private final CompromisedPasswordChecker compromisedPasswordChecker;
     private final AuthenticationManager authenticationManager;
-    private final Environment env;
+    private final JWTTokenService jwtTokenService;
+    private final RefreshTokenService refreshTokenService;
+    private final LoginRateLimiter loginRateLimiter;
 
     @PostMapping("/register")
     public ResponseEntity<String> registerUser(@RequestBody Customer customer){
         try{
+            // Checked before the (expensive) hashing. The default offline checker is a local lookup; only checker=rest
+            // (or rest-fallback=true) makes this a blocking HTTPS call, bounded by security.compromised-password.rest-timeout.
+            if(compromisedPasswordChecker.check(customer.getPwd()).isCompromised()){
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).
+                        body("The provided password is compromised, please change your password");
+            }
             String hashPwd = passwordEncoder.encode(customer.getPwd());
             customer.setPwd(hashPwd);
             customer.setCreateDt(new Date(System.currentTimeMillis()));
+            // Saving the customer also evicts its email from the UserDetails cache (UserCacheInvalidator)
             Customer savedCustomer = customerRepository.save(customer);
 
             if(savedCustomer.getId() > 0){
@@ -52,6 +64,8 @@ public class UserController {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).
                         body("User registration failed");
             }
+        } catch (PasswordHashingBusyException ex){
+            throw ex; // 503 with Retry-After, see GlobalExceptionHandler
         } catch (Exception ex){
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).
                     body("An exception occurred: " + ex.getMessage());
@@ -68,27 +82,33 @@ public class UserController {
     // This scenario gives you more control over authentication and request structure.
 
     @PostMapping("/apiLogin")
-    public ResponseEntity<LoginResponseDTO> apiLogin (@RequestBody LoginRequestDTO loginRequest) {
+    public ResponseEntity<LoginResponseDTO> apiLogin (@RequestBody LoginRequestDTO loginRequest, HttpServletRequest request) {
         String jwt = "";
-        Authentication authentication = UsernamePasswordAuthenticationToken.unauthenticated(loginRequest.username(),
+        String refreshToken = "";
+        // Checked before the AuthenticationManager, so a rejected attempt never reaches the PasswordEncoder (429, see GlobalExceptionHandler)
+        long retryAfterSeconds = loginRateLimiter.tryAcquire(loginRequest.username(), request.getRemoteAddr());
+        if(retryAfterSeconds > 0){
+            throw new LoginRateLimitedException(retryAfterSeconds);
+        }
+        UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.unauthenticated(loginRequest.username(),
                 loginRequest.password()); // convert login request to authenticate object
+        authentication.setDetails(new WebAuthenticationDetails(request)); // client IP for the failure events
         Authentication authenticationResponse = authenticationManager.authenticate(authentication);
         if(authenticationResponse != null && authenticationResponse.isAuthenticated()) {
-            if (null != env) {
-                String secret = env.getProperty(ApplicationConstants.JWT_SECRET_KEY,
-                        ApplicationConstants.JWT_SECRET_DEFAULT_VALUE);
-                SecretKey secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-                jwt = Jwts.builder().issuer("Eazy Bank").subject("JWT Token")
-                        .claim("username", authenticationResponse.getName())
-                        .claim("authorities", authenticationResponse.getAuthorities().stream().map(
-                                GrantedAuthority::getAuthority).collect(Collectors.joining(",")))
-                        .issuedAt(new java.util.Date())
-                        .expiration(new java.util.Date((new java.util.Date()).getTime() + 30000000))
-                        .signWith(secretKey).compact();
-            }
+            jwt = jwtTokenService.generateToken(authenticationResponse);
+            refreshToken = refreshTokenService.issue(authenticationResponse);
         }
         return ResponseEntity.status(HttpStatus.OK).header(ApplicationConstants.JWT_HEADER,jwt)
-                .body(new LoginResponseDTO(HttpStatus.OK.getReasonPhrase(), jwt));
+                .body(new LoginResponseDTO(HttpStatus.OK.getReasonPhrase(), jwt, refreshToken));
+    }
+
+    // Exchanges a refresh token for a new access token and a new refresh token, without checking the password again.
+    // An invalid, expired or already used refresh token throws BadCredentialsException, which is answered with 401.
+    @PostMapping("/apiRefresh")
+    public ResponseEntity<LoginResponseDTO> apiRefresh(@RequestBody RefreshRequestDTO refreshRequest) {
+        RefreshTokenService.TokenPair tokenPair = refreshTokenService.rotate(refreshRequest.refreshToken());
+        return ResponseEntity.status(HttpStatus.OK).header(ApplicationConstants.JWT_HEADER, tokenPair.jwtToken())
+                .body(new LoginResponseDTO(HttpStatus.OK.getReasonPhrase(), tokenPair.jwtToken(), tokenPair.refreshToken()));
     }
 
 }
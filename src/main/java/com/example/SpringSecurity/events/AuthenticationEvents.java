@@ -1,13 +1,19 @@
 package com.example.SpringSecurity.events;
 
-import lombok.extern.slf4j.Slf4j;
+import com.example.SpringSecurity.audit.AuditEventType;
+import com.example.SpringSecurity.audit.SecurityAuditor;
+import com.example.SpringSecurity.service.LoginRateLimiter;
+import lombok.RequiredArgsConstructor;
 import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
 import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.stereotype.Component;
 
-@Slf4j
 @Component
+@RequiredArgsConstructor
 public class AuthenticationEvents {
 
     // Authentication Success Event: This event is issued when the user is successfully logged in. In Spring Security,
@@ -25,16 +31,35 @@ public class AuthenticationEvents {
     // To simplify the Logger creation process, the @Slf4j annotation is used, which automatically provides a Logger for the class.
     // You must use @EventListener for these methods to receive events. This annotation belongs to Spring Boot and allows methods
     // to automatically listen for authentication events (to listen for AuthenticationSuccessEvent and AuthenticationFailureEvent).
+    // The events are handed to the SecurityAuditor instead of being logged, so the listener does no I/O on the request thread.
+
+    private final SecurityAuditor securityAuditor;
+    private final LoginRateLimiter loginRateLimiter;
 
     @EventListener
     public void onSuccess(AuthenticationSuccessEvent successEvent){
-        log.info("Login successful for the user : {}",successEvent.getAuthentication().getName());
+        loginRateLimiter.recordSuccess(successEvent.getAuthentication().getName(),
+                remoteAddress(successEvent.getAuthentication()));
+        if (securityAuditor.sampleSuccess()) {
+            securityAuditor.record(AuditEventType.AUTHENTICATION_SUCCESS, successEvent.getAuthentication().getName(), null);
+        }
     }
 
     @EventListener
     public void onFailure(AbstractAuthenticationFailureEvent failureEvent){
-        log.error("Login failed for the user : {} due to : {}",failureEvent.getAuthentication().getName(),
+        // A failed login uses up more of the rate limit buckets than a successful one. BasicAuthenticationFilter and
+        // /apiLogin put WebAuthenticationDetails on the Authentication, which carry the client IP.
+        // A service failure (for example a full password hashing pool) says nothing about the password, so it costs nothing.
+        if (!(failureEvent.getException() instanceof AuthenticationServiceException)) {
+            loginRateLimiter.recordFailure(failureEvent.getAuthentication().getName(),
+                    remoteAddress(failureEvent.getAuthentication()));
+        }
+        securityAuditor.record(AuditEventType.AUTHENTICATION_FAILURE, failureEvent.getAuthentication().getName(),
                 failureEvent.getException().getMessage());
     }
 
+    private String remoteAddress(Authentication authentication) {
+        return authentication.getDetails() instanceof WebAuthenticationDetails details ? details.getRemoteAddress() : null;
+    }
+
 }
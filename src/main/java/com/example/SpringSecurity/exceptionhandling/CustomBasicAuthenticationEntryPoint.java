@@ -3,6 +3,7 @@ package com.example.SpringSecurity.exceptionhandling;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.AuthenticationEntryPoint;
@@ -34,13 +35,24 @@ public class CustomBasicAuthenticationEntryPoint implements AuthenticationEntryP
         LocalDateTime currentTimeStamp = LocalDateTime.now();
         String message = (authException != null && authException.getMessage() != null) ? authException.getMessage() : "Unauthorized";
         String path = request.getRequestURI();
-        response.setHeader("eazybank-error-reason", "Authentication failed");
-        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        // The password hashing pool was full, so the credentials were not checked at all: 503 and try again later
+        HttpStatus status = HttpStatus.UNAUTHORIZED;
+        if (authException instanceof PasswordHashingBusyException busyException) {
+            status = HttpStatus.SERVICE_UNAVAILABLE;
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(busyException.getRetryAfterSeconds()));
+        } else if (authException instanceof LoginRateLimitedException rateLimitedException) {
+            // LoginRateLimitFilter rejected the HTTP Basic login before the password was checked
+            status = HttpStatus.TOO_MANY_REQUESTS;
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(rateLimitedException.getRetryAfterSeconds()));
+        } else {
+            response.setHeader("eazybank-error-reason", "Authentication failed");
+        }
+        response.setStatus(status.value());
         response.setContentType("application/json;charset=UTF-8");
         // Construct the JSON response
         String jsonResponse = String
                 .format("{\"+timestamp\": \"%s\", \"status\": %d, \"error\": \"%s\", \"message\": \"%s\", \"path\": \"%s\"}"
-                , currentTimeStamp, HttpStatus.UNAUTHORIZED.value(),HttpStatus.UNAUTHORIZED.getReasonPhrase()
+                , currentTimeStamp, status.value(),status.getReasonPhrase()
                 , message, path);
         response.getWriter().write(jsonResponse);
     }
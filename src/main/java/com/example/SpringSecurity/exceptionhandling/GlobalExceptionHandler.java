@@ -0,0 +1,40 @@
+package com.example.SpringSecurity.exceptionhandling;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    // Exceptions thrown by controllers (for example /register and /apiLogin) end up here, the ones thrown inside the
+    // security filters are handled by CustomBasicAuthenticationEntryPoint. Both answer with the same JSON fields.
+
+    @ExceptionHandler(PasswordHashingBusyException.class)
+    public ResponseEntity<Map<String, Object>> handlePasswordHashingBusy(PasswordHashingBusyException ex) {
+        return retryLater(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage(), ex.getRetryAfterSeconds());
+    }
+
+    @ExceptionHandler(LoginRateLimitedException.class)
+    public ResponseEntity<Map<String, Object>> handleLoginRateLimited(LoginRateLimitedException ex) {
+        return retryLater(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage(), ex.getRetryAfterSeconds());
+    }
+
+    private ResponseEntity<Map<String, Object>> retryLater(HttpStatus status, String message, long retryAfterSeconds) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now().toString());
+        body.put("status", status.value());
+        body.put("error", status.getReasonPhrase());
+        body.put("message", message);
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(body);
+    }
+
+}
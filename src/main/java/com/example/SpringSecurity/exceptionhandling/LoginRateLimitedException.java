@@ -0,0 +1,17 @@
+package com.example.SpringSecurity.exceptionhandling;
+
+import lombok.Getter;
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+// Thrown by /apiLogin and LoginRateLimitFilter when the LoginRateLimiter rejects the attempt. The password is not checked at all.
+@Getter
+public class LoginRateLimitedException extends AuthenticationServiceException {
+
+    private final long retryAfterSeconds;
+
+    public LoginRateLimitedException(long retryAfterSeconds) {
+        super("Too many login attempts, please retry later");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+}
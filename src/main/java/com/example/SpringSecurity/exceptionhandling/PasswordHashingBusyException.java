@@ -0,0 +1,19 @@
+package com.example.SpringSecurity.exceptionhandling;
+
+import lombok.Getter;
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+// Thrown when the password hashing pool is full. It is an AuthenticationServiceException, so ProviderManager passes it on
+// instead of trying the next provider, and CustomBasicAuthenticationEntryPoint answers 503 instead of 401:
+// the credentials were never checked, so the client should retry, not ask the user for a new password.
+@Getter
+public class PasswordHashingBusyException extends AuthenticationServiceException {
+
+    private final long retryAfterSeconds;
+
+    public PasswordHashingBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+}
@@ -1,22 +1,29 @@
 package com.example.SpringSecurity.filter;
 
+import com.example.SpringSecurity.audit.AuditEventType;
+import com.example.SpringSecurity.audit.SecurityAuditor;
 import jakarta.servlet.*;
-import lombok.extern.slf4j.Slf4j;
+import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
 
-@Slf4j
+@RequiredArgsConstructor
 public class AuthoritiesLoggingAfterFilter implements Filter {
 
+    // This used to log at INFO on every authenticated request. Now the event goes to the asynchronous audit pipeline,
+    // and only for the sampled requests, so the authorities string is not even built for the others.
+
+    private final SecurityAuditor securityAuditor;
+
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if(authentication != null){
-            log.info("User " + authentication.getName() + "is successfully authenticated and "
-                + "has the authorities " + authentication.getAuthorities().toString());
+        if(authentication != null && securityAuditor.sampleSuccess()){
+            securityAuditor.record(AuditEventType.REQUEST_AUTHENTICATED, authentication.getName(),
+                    "authorities=" + authentication.getAuthorities());
         }
         chain.doFilter(request,response);
     }
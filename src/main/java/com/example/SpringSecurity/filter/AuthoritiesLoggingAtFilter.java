@@ -1,17 +1,28 @@
 package com.example.SpringSecurity.filter;
 
+import com.example.SpringSecurity.audit.AuditEventType;
+import com.example.SpringSecurity.audit.SecurityAuditor;
 import jakarta.servlet.*;
-import lombok.extern.slf4j.Slf4j;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
 
 import java.io.IOException;
 
-@Slf4j
+@RequiredArgsConstructor
 public class AuthoritiesLoggingAtFilter implements Filter {
 
+    // Runs for every request, so the "Authentication Validation is in progress" event is sampled like any other success.
+
+    private final SecurityAuditor securityAuditor;
+
     @Override
     public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
             throws IOException, ServletException {
-        log.info("Authentication Validation is in progress");
+        if (securityAuditor.sampleSuccess()) {
+            HttpServletRequest req = (HttpServletRequest) request;
+            securityAuditor.record(AuditEventType.AUTHENTICATION_ATTEMPT, null,
+                    req.getMethod() + " " + req.getRequestURI());
+        }
         chain.doFilter(request,response);
     }
 
@@ -0,0 +1,42 @@
+package com.example.SpringSecurity.filter;
+
+import com.example.SpringSecurity.constants.ApplicationConstants;
+import com.example.SpringSecurity.service.JWTTokenService;
+import com.example.SpringSecurity.service.RefreshTokenService;
+import com.example.SpringSecurity.service.TokenRevocationService;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.logout.LogoutHandler;
+
+@RequiredArgsConstructor
+public class JWTLogoutHandler implements LogoutHandler {
+
+    // LogoutFilter runs before JWTTokenValidatorFilter, so the SecurityContext is still empty here.
+    // The handler reads the token from the Authorization header itself and revokes it,
+    // so the token can no longer be used even though it has not expired yet.
+    // If the client also sends its refresh token (Refresh-Token header), the refresh token family of this login is revoked too.
+
+    private final JWTTokenService jwtTokenService;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
+
+    @Override
+    public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
+        String jwt = request.getHeader(ApplicationConstants.JWT_HEADER);
+        if (jwt != null) {
+            try {
+                tokenRevocationService.revoke(jwtTokenService.toAuthentication(jwtTokenService.parseToken(jwt)));
+            } catch (JwtException exception) {
+                // An invalid or expired token cannot be used anyway, there is nothing to revoke
+            }
+        }
+        String refreshToken = request.getHeader(ApplicationConstants.REFRESH_TOKEN_HEADER);
+        if (refreshToken != null) {
+            refreshTokenService.revokeFamily(refreshToken);
+        }
+    }
+
+}
@@ -1,24 +1,22 @@
 package com.example.SpringSecurity.filter;
 
 import com.example.SpringSecurity.constants.ApplicationConstants;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import com.example.SpringSecurity.service.JWTAuthenticationToken;
+import com.example.SpringSecurity.service.JWTIssuancePolicy;
+import com.example.SpringSecurity.service.JWTTokenService;
+import com.example.SpringSecurity.service.RefreshTokenService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.core.env.Environment;
+import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import javax.crypto.SecretKey;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.Date;
-import java.util.stream.Collectors;
 
+@RequiredArgsConstructor
 public class JWTTokenGeneratorFilter extends OncePerRequestFilter {
 
     // Opaque tokens:
@@ -90,25 +88,30 @@ public class JWTTokenGeneratorFilter extends OncePerRequestFilter {
     // The secret key must be well protected, because if it is leaked, anyone can generate fake tokens that look authentic.
     // To increase security, the secret key should not be stored in the program code, and it is better to use secure mechanisms such as Secrets Vault or Environment Variables to store it.
 
+    private final JWTTokenService jwtTokenService;
+    private final RefreshTokenService refreshTokenService;
+    private final JWTIssuancePolicy jwtIssuancePolicy;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if(authentication != null){
-            Environment env = getEnvironment();
-            if(env != null){
-                String secret = env.getProperty(ApplicationConstants.JWT_SECRET_KEY,
-                        ApplicationConstants.JWT_SECRET_DEFAULT_VALUE);
-                SecretKey secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-                String jwt = Jwts.builder().issuer("Eazy Bank").subject("JWT Token")
-                        .claim("username",authentication.getName())
-                        .claim("authorities",authentication.getAuthorities().stream().map(
-                                GrantedAuthority::getAuthority).collect(Collectors.joining(","))) // The roles are taken from the GrantedAuthority object and converted to a comma-separated string.
-                        .issuedAt(new Date())
-                        .expiration(new Date((new Date()).getTime() + 30000000)) // millisecond
-                        .signWith(secretKey).compact();
+            if(jwtIssuancePolicy.canReuse(authentication)){
+                // The caller authenticated with a JWT that still has enough lifetime (validated by JWTTokenValidatorFilter),
+                // so it is sent back unchanged and no signing is needed. The caller keeps its current refresh token.
+                response.setHeader(ApplicationConstants.JWT_HEADER, request.getHeader(ApplicationConstants.JWT_HEADER));
+                jwtIssuancePolicy.recordReused();
+            } else {
+                String jwt = jwtTokenService.generateToken(authentication);
                 response.setHeader(ApplicationConstants.JWT_HEADER,jwt);
+                // A refresh token is only issued for a password login (Basic). A JWT-authenticated call only gets a new
+                // access token, otherwise a stolen access token could be turned into a refresh token that lives for days.
+                if (!(authentication instanceof JWTAuthenticationToken)) {
+                    response.setHeader(ApplicationConstants.REFRESH_TOKEN_HEADER, refreshTokenService.issue(authentication));
+                }
+                jwtIssuancePolicy.recordIssued();
             }
         }
         filterChain.doFilter(request,response);
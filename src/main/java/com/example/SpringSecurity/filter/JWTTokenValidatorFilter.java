@@ -1,25 +1,24 @@
 package com.example.SpringSecurity.filter;
 
 import com.example.SpringSecurity.constants.ApplicationConstants;
+import com.example.SpringSecurity.service.JWTAuthenticationToken;
+import com.example.SpringSecurity.service.JWTTokenCache;
+import com.example.SpringSecurity.service.JWTTokenService;
+import com.example.SpringSecurity.service.TokenRevocationService;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.core.env.Environment;
+import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import javax.crypto.SecretKey;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 
+@RequiredArgsConstructor
 public class JWTTokenValidatorFilter extends OncePerRequestFilter {
 
     // When the user logs in and the login information is correct, the server sends a JWT token to the user's browser in its response.
@@ -31,6 +30,10 @@ public class JWTTokenValidatorFilter extends OncePerRequestFilter {
     // to the server and has the ability to manipulate the request. We use the Interceptor to add the JWT token to the header of each request.
     // When the user logs out, the JWT token must be deleted from the session storage to prevent any misuse.
 
+    private final JWTTokenService jwtTokenService;
+    private final JWTTokenCache jwtTokenCache;
+    private final TokenRevocationService tokenRevocationService;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
                                     throws ServletException, IOException {
@@ -38,21 +41,17 @@ public class JWTTokenValidatorFilter extends OncePerRequestFilter {
         String jwt = request.getHeader(ApplicationConstants.JWT_HEADER);
         if(null != jwt) {
             try {
-                Environment env = getEnvironment();
-                if (null != env) {
-                    String secret = env.getProperty(ApplicationConstants.JWT_SECRET_KEY,
-                            ApplicationConstants.JWT_SECRET_DEFAULT_VALUE);
-                    SecretKey secretKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-                    if(null !=secretKey) {
-                        Claims claims = Jwts.parser().verifyWith(secretKey)
-                                .build().parseSignedClaims(jwt).getPayload();
-                        String username = String.valueOf(claims.get("username"));
-                        String authorities = String.valueOf(claims.get("authorities"));
-                        Authentication authentication = new UsernamePasswordAuthenticationToken(username, null,
-                                AuthorityUtils.commaSeparatedStringToAuthorityList(authorities));
-                        SecurityContextHolder.getContext().setAuthentication(authentication);
-                    }
+                JWTAuthenticationToken authentication = jwtTokenCache.get(jwt); // null when the cache is disabled or on a miss
+                if (authentication == null) {
+                    Claims claims = jwtTokenService.parseToken(jwt);
+                    authentication = jwtTokenService.toAuthentication(claims); // authorities come from the shared AuthorityRegistry
+                    jwtTokenCache.put(jwt, authentication, claims.getExpiration());
+                }
+                // Checked on every request, also for cached tokens, so a revocation takes effect immediately
+                if (tokenRevocationService.isRevoked(authentication)) {
+                    throw new BadCredentialsException("Token revoked");
                 }
+                SecurityContextHolder.getContext().setAuthentication(authentication);
             } catch (Exception exception) {
                 throw new BadCredentialsException("Invalid Token received!");
             }
@@ -62,7 +61,15 @@ public class JWTTokenValidatorFilter extends OncePerRequestFilter {
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
-        return request.getServletPath().equals("/user"); // Login API
+        // The refresh API is usually called with an access token that has just expired, so it is never validated.
+        // On the login API (/user) the Authorization header normally holds Basic credentials for BasicAuthenticationFilter.
+        // A JWT sent to /user is validated, so JWTTokenGeneratorFilter can send it back instead of signing a new one.
+        String path = request.getServletPath();
+        if (path.equals("/apiRefresh")) {
+            return true;
+        }
+        String header = request.getHeader(ApplicationConstants.JWT_HEADER);
+        return path.equals("/user") && (header == null || StringUtils.startsWithIgnoreCase(header, "Basic "));
     }
 
 }
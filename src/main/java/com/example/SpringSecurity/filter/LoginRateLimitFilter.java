@@ -0,0 +1,54 @@
+package com.example.SpringSecurity.filter;
+
+import com.example.SpringSecurity.exceptionhandling.LoginRateLimitedException;
+import com.example.SpringSecurity.service.LoginRateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@RequiredArgsConstructor
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    // Runs before BasicAuthenticationFilter, so a rejected HTTP Basic login gets 429 without any database lookup or bcrypt.
+    // Only requests with Basic credentials are counted: JWT requests never check a password.
+    // A header that cannot be decoded is left to BasicAuthenticationFilter (and counted by IP only).
+
+    private final LoginRateLimiter loginRateLimiter;
+    private final AuthenticationEntryPoint authenticationEntryPoint;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header != null && StringUtils.startsWithIgnoreCase(header.trim(), "Basic ")) {
+            long retryAfterSeconds = loginRateLimiter.tryAcquire(extractUsername(header.trim()), request.getRemoteAddr());
+            if (retryAfterSeconds > 0) {
+                // Same 429 answer as /apiLogin (GlobalExceptionHandler), written by the entry point like every other filter error
+                authenticationEntryPoint.commence(request, response, new LoginRateLimitedException(retryAfterSeconds));
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private String extractUsername(String header) {
+        try {
+            String token = new String(Base64.getDecoder().decode(header.substring(6)), StandardCharsets.UTF_8);
+            int delim = token.indexOf(':');
+            return delim == -1 ? null : token.substring(0, delim);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.example.SpringSecurity.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// Custom JFR event, visible in JDK Mission Control next to the JVM events of the same recording.
+// Enable it with: jcmd <pid> JFR.start settings=profile +com.example.SpringSecurity.SecurityFilter#enabled=true
+@Name("com.example.SpringSecurity.SecurityFilter")
+@Label("Security Filter")
+@Category({"EazyBank", "Security"})
+@Description("Time spent inside one filter of the SecurityFilterChain, without the filters after it")
+@StackTrace(false)
+public class SecurityFilterEvent extends Event {
+
+    @Label("Filter")
+    String filter;
+
+    @Label("Own Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long ownTime;
+
+}
@@ -0,0 +1,74 @@
+package com.example.SpringSecurity.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+
+import java.io.IOException;
+
+class TimedFilter implements Filter {
+
+    // Measures the time spent inside one filter only. A filter calls chain.doFilter to run the rest of the chain,
+    // so the time of that call is subtracted. The chain object handed to the filter is a per-thread DownstreamTimer
+    // that is reused for every request, so nothing is allocated per request. (With virtual threads, every request has a
+    // new thread and therefore gets one small DownstreamTimer per filter, which is still cheap.)
+
+    private final Filter delegate;
+    private final String filterName;
+    private final Timer timer;
+    private final FilterTimingRecorder recorder;
+    private final ThreadLocal<DownstreamTimer> downstreamTimer = ThreadLocal.withInitial(DownstreamTimer::new);
+
+    TimedFilter(Filter delegate, FilterTimingRecorder recorder) {
+        this.delegate = delegate;
+        this.filterName = delegate.getClass().getSimpleName();
+        this.timer = recorder.timerFor(filterName, delegate.getClass().getName().startsWith("com.example."));
+        this.recorder = recorder;
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (!recorder.isEnabled()) {
+            delegate.doFilter(request, response, chain);
+            return;
+        }
+        DownstreamTimer downstream = downstreamTimer.get();
+        // Saved and restored, in case the same filter runs again inside this request on the same thread (forward)
+        FilterChain previousChain = downstream.chain;
+        long previousNanos = downstream.nanos;
+        downstream.chain = chain;
+        downstream.nanos = 0;
+        long start = System.nanoTime();
+        try {
+            delegate.doFilter(request, response, downstream);
+        } finally {
+            long ownNanos = System.nanoTime() - start - downstream.nanos;
+            downstream.chain = previousChain;
+            downstream.nanos = previousNanos;
+            recorder.record(timer, filterName, ownNanos);
+        }
+    }
+
+    private static final class DownstreamTimer implements FilterChain {
+
+        private FilterChain chain;
+        private long nanos;
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+            FilterChain next = chain;
+            long start = System.nanoTime();
+            try {
+                next.doFilter(request, response);
+            } finally {
+                nanos += System.nanoTime() - start;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.example.SpringSecurity.metrics;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import org.springframework.security.web.FilterChainProxy;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class TimingFilterChainDecorator implements FilterChainProxy.FilterChainDecorator {
+
+    // FilterChainProxy calls decorate for every request with the filter list of the matching SecurityFilterChain.
+    // That list is the same object every time, so its TimedFilter copy is created once and then looked up by identity.
+    // The map is copied on write and only read afterwards, so the request path takes no lock.
+
+    private final FilterChainProxy.FilterChainDecorator delegate = new FilterChainProxy.VirtualFilterChainDecorator();
+    private final FilterTimingRecorder recorder;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile Map<List<Filter>, List<Filter>> timedFilters = new IdentityHashMap<>();
+
+    public TimingFilterChainDecorator(FilterTimingRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @Override
+    public FilterChain decorate(FilterChain original) {
+        return delegate.decorate(original);
+    }
+
+    @Override
+    public FilterChain decorate(FilterChain original, List<Filter> filters) {
+        List<Filter> timed = timedFilters.get(filters);
+        if (timed == null) {
+            timed = createTimedFilters(filters);
+        }
+        return delegate.decorate(original, timed);
+    }
+
+    private List<Filter> createTimedFilters(List<Filter> filters) {
+        lock.lock();
+        try {
+            List<Filter> timed = timedFilters.get(filters);
+            if (timed == null) {
+                timed = new ArrayList<>(filters.size());
+                for (Filter filter : filters) {
+                    timed.add(new TimedFilter(filter, recorder));
+                }
+                Map<List<Filter>, List<Filter>> copy = new IdentityHashMap<>(timedFilters);
+                copy.put(filters, timed);
+                timedFilters = copy;
+            }
+            return timed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
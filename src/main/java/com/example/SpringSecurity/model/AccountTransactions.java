@@ -1,7 +1,9 @@
 package com.example.SpringSecurity.model;
 
+import com.example.SpringSecurity.service.AccountSummaryUpdater;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import lombok.Getter;
@@ -12,6 +14,7 @@ import java.sql.Date;
 @Entity
 @Getter @Setter
 @Table(name = "account_transactions")
+@EntityListeners(AccountSummaryUpdater.class)
 public class AccountTransactions {
 
     @Id
@@ -24,7 +27,9 @@ public class AccountTransactions {
     @Column(name = "customer_id")
     private long customerId;
 
-    @Column(name = "transaction_dt")
+    // Part of the keyset of /myBalance (TransactionCursor): a null date could neither be encoded in a cursor
+    // nor be found by the "transaction_dt <" seek, so the column is NOT NULL
+    @Column(name = "transaction_dt", nullable = false)
     private Date transactionDt;
 
     @Column(name = "transaction_summary")
@@ -1,15 +1,21 @@
 package com.example.SpringSecurity.model;
 
+import com.example.SpringSecurity.service.CustomerDataVersions;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.sql.Date;
 
 @Entity
 @Getter @Setter
+@EntityListeners(CustomerDataVersions.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "accounts")
 public class Accounts {
 
     @Id
@@ -1,5 +1,6 @@
 package com.example.SpringSecurity.model;
 
+import com.example.SpringSecurity.service.UserCacheInvalidator;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -7,6 +8,7 @@ import lombok.Setter;
 @Entity
 @Getter @Setter
 @Table(name = "authorities")
+@EntityListeners(UserCacheInvalidator.class)
 public class Authority {
 
     // Authority: A specific permission or action that a user can perform. For example, "View Account" or "View Cards". These licenses refer to specific and individual operations.
@@ -1,14 +1,20 @@
 package com.example.SpringSecurity.model;
 
+import com.example.SpringSecurity.service.AccountSummaryUpdater;
+import com.example.SpringSecurity.service.CustomerDataVersions;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.sql.Date;
 
 @Entity
 @Getter @Setter
 @Table(name = "cards")
+@EntityListeners({AccountSummaryUpdater.class, CustomerDataVersions.class})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cards")
 public class Cards {
 
     @Id
@@ -2,6 +2,7 @@ package com.example.SpringSecurity.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.example.SpringSecurity.service.UserCacheInvalidator;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
@@ -13,6 +14,7 @@ import java.util.Set;
 @Setter
 @Getter
 @Table(name = "customer")
+@EntityListeners(UserCacheInvalidator.class)
 public class Customer {
 
     @Id
@@ -44,8 +46,16 @@ public class Customer {
     @Column(name = "create_dt")
     private Date createDt;
 
+    // LAZY: /user, /myAccount, ... never need the authorities, and the login path reads them with
+    // CustomerRepository.findAuthRowsByEmail in the same query as the password hash
     @JsonIgnore
-    @OneToMany(mappedBy = "customer", fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "customer", fetch = FetchType.LAZY)
     private Set<Authority> authorities;
 
+    // The email the row had when it was loaded, so that UserCacheInvalidator can also evict the old username
+    // when the email (the username) is changed
+    @JsonIgnore
+    @Transient
+    private String loadedEmail;
+
 }
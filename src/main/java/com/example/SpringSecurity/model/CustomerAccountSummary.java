@@ -0,0 +1,76 @@
+package com.example.SpringSecurity.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.util.Objects;
+
+// Read model of /myAccountSummary: one row per customer with the totals the dashboard used to derive on the client
+// from /myBalance, /myCards and /myLoans. It is never edited directly, AccountSummaryService recomputes it from
+// account_transactions, cards and loans whenever one of their rows changes.
+@Entity
+@Getter @Setter
+@Table(name = "customer_account_summary")
+public class CustomerAccountSummary {
+
+    @Id
+    @Column(name = "customer_id")
+    private long customerId;
+
+    // closing_balance of the newest transaction, 0 without transactions
+    @Column(name = "closing_balance")
+    private int closingBalance;
+
+    @Column(name = "last_transaction_dt")
+    private Date lastTransactionDt;
+
+    @Column(name = "card_count")
+    private long cardCount;
+
+    @Column(name = "cards_total_limit")
+    private long cardsTotalLimit;
+
+    @Column(name = "cards_amount_used")
+    private long cardsAmountUsed;
+
+    @Column(name = "loan_count")
+    private long loanCount;
+
+    @Column(name = "loans_total")
+    private long loansTotal;
+
+    @Column(name = "loans_outstanding")
+    private long loansOutstanding;
+
+    @JsonIgnore
+    @Column(name = "updated_at")
+    private Timestamp updatedAt;
+
+    // Share of the card limits that is used, 0.0 to 1.0
+    @Transient
+    public double getCardUtilization() {
+        return cardsTotalLimit == 0 ? 0.0 : (double) cardsAmountUsed / cardsTotalLimit;
+    }
+
+    // Used by the consistency check, updatedAt is deliberately left out
+    public boolean sameTotals(CustomerAccountSummary other) {
+        return customerId == other.customerId
+                && closingBalance == other.closingBalance
+                && Objects.equals(lastTransactionDt, other.lastTransactionDt)
+                && cardCount == other.cardCount
+                && cardsTotalLimit == other.cardsTotalLimit
+                && cardsAmountUsed == other.cardsAmountUsed
+                && loanCount == other.loanCount
+                && loansTotal == other.loansTotal
+                && loansOutstanding == other.loansOutstanding;
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.example.SpringSecurity.model;
+
+// One row of CustomerRepository.findAuthRowsByEmail: the customer's credentials and one of its authority names
+// (null if the customer has no authorities). A customer with three authorities gives three rows.
+public interface CustomerAuthRow {
+
+    String getEmail();
+
+    String getPwd();
+
+    String getAuthority();
+
+}
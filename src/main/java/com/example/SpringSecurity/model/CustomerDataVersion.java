@@ -0,0 +1,30 @@
+package com.example.SpringSecurity.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.Setter;
+
+// Change counters per customer for the ETags of /myAccount, /myCards and /myLoans. The application never loads this
+// entity: CustomerDataVersions bumps and reads the counters with plain SQL. It is mapped so the table is part of the model.
+@Entity
+@Getter @Setter
+@Table(name = "customer_data_version")
+public class CustomerDataVersion {
+
+    @Id
+    @Column(name = "customer_id")
+    private long customerId;
+
+    @Column(name = "accounts_version")
+    private long accountsVersion;
+
+    @Column(name = "cards_version")
+    private long cardsVersion;
+
+    @Column(name = "loans_version")
+    private long loansVersion;
+
+}
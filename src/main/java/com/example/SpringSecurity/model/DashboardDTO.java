@@ -0,0 +1,10 @@
+package com.example.SpringSecurity.model;
+
+import java.util.List;
+import java.util.Map;
+
+// /myDashboard: what /myAccount, /myBalance (first page), /myCards and /myLoans return, in one response.
+// A part that failed or took too long is null and errors says why ("forbidden", "timeout", "busy" or "error").
+public record DashboardDTO(Accounts account, List<AccountTransactions> transactions, String nextCursor,
+                           List<Cards> cards, List<Loans> loans, Map<String, String> errors) {
+}
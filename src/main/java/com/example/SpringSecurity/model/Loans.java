@@ -1,17 +1,24 @@
 package com.example.SpringSecurity.model;
 
+import com.example.SpringSecurity.service.AccountSummaryUpdater;
+import com.example.SpringSecurity.service.CustomerDataVersions;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.sql.Date;
 
 @Entity
 @Getter @Setter
 @Table(name = "loans")
+@EntityListeners({AccountSummaryUpdater.class, CustomerDataVersions.class})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "loans")
 public class Loans {
 
     @Id
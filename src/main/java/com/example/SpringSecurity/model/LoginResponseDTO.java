@@ -1,4 +1,4 @@
 package com.example.SpringSecurity.model;
 
-public record LoginResponseDTO(String status, String jwtToken) {
+public record LoginResponseDTO(String status, String jwtToken, String refreshToken) {
 }
@@ -1,18 +1,24 @@
 package com.example.SpringSecurity.model;
 
+import com.example.SpringSecurity.service.NoticeSnapshotInvalidator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.sql.Date;
 
 @Entity
 @Getter @Setter
 @Table(name = "notice_details")
+@EntityListeners(NoticeSnapshotInvalidator.class)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "notices")
 public class Notice {
 
     @Id
@@ -0,0 +1,4 @@
+package com.example.SpringSecurity.model;
+
+public record RefreshRequestDTO(String refreshToken) {
+}
@@ -0,0 +1,43 @@
+package com.example.SpringSecurity.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+
+@Entity
+@Getter @Setter
+@Table(name = "refresh_tokens")
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    // Only the SHA-256 hash of the token is stored, so a leaked table cannot be used to refresh tokens
+    @Column(name = "token_hash")
+    private String tokenHash;
+
+    // All refresh tokens created by rotating one login share the same family
+    @Column(name = "family_id")
+    private String familyId;
+
+    private String username;
+
+    // The compact authorities of the login, so a refresh does not have to load the customer again
+    private String authorities;
+
+    @Column(name = "expires_at")
+    private Timestamp expiresAt;
+
+    // Set when the token was exchanged. A used token that comes back is a replayed (stolen) token
+    private boolean used;
+
+    private boolean revoked;
+
+    @Column(name = "create_dt")
+    private Date createDt;
+
+}
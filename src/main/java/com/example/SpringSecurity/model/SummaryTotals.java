@@ -0,0 +1,12 @@
+package com.example.SpringSecurity.model;
+
+// Interface-based projection of the aggregate queries of CustomerAccountSummaryRepository (count and two sums)
+public interface SummaryTotals {
+
+    long getCount();
+
+    long getFirstSum();
+
+    long getSecondSum();
+
+}
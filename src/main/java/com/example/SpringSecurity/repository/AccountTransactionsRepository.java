@@ -1,9 +1,13 @@
 package com.example.SpringSecurity.repository;
 
 import com.example.SpringSecurity.model.AccountTransactions;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Date;
 import java.util.List;
 
 @Repository
@@ -11,4 +15,18 @@ public interface AccountTransactionsRepository extends JpaRepository<AccountTran
 
     List<AccountTransactions> findByCustomerIdOrderByTransactionDtDesc(long customerId);
 
+    // Keyset pagination: both queries seek directly into the (customer_id, transaction_dt, transaction_id) index and
+    // read only limit rows, so a page costs the same whether the customer has 10 or 100000 transactions.
+    // transaction_id breaks ties between transactions of the same day.
+    @Query("select t from AccountTransactions t where t.customerId = :customerId "
+            + "order by t.transactionDt desc, t.transactionId desc")
+    List<AccountTransactions> findFirstPage(@Param("customerId") long customerId, Limit limit);
+
+    @Query("select t from AccountTransactions t where t.customerId = :customerId "
+            + "and (t.transactionDt < :transactionDt or (t.transactionDt = :transactionDt and t.transactionId < :transactionId)) "
+            + "order by t.transactionDt desc, t.transactionId desc")
+    List<AccountTransactions> findPageAfter(@Param("customerId") long customerId,
+                                            @Param("transactionDt") Date transactionDt,
+                                            @Param("transactionId") String transactionId, Limit limit);
+
 }
@@ -1,12 +1,21 @@
 package com.example.SpringSecurity.repository;
 
 import com.example.SpringSecurity.model.Accounts;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface AccountsRepository extends JpaRepository<Accounts, Long> {
 
+    // The result is kept in the query cache (region accounts-by-customer in ehcache.xml), so a repeated call
+    // runs no SQL until the accounts table is written through JPA or the ttl ends
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "accounts-by-customer")
+    })
     Accounts findByCustomerId(long customerId);
 
 }
@@ -1,7 +1,10 @@
 package com.example.SpringSecurity.repository;
 
 import com.example.SpringSecurity.model.Cards;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,6 +12,11 @@ import java.util.List;
 @Repository
 public interface CardsRepository extends JpaRepository<Cards, Long> {
 
+    // Cached like AccountsRepository.findByCustomerId
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "cards-by-customer")
+    })
     List<Cards> findByCustomerId(long customerId);
 
 }
@@ -0,0 +1,38 @@
+package com.example.SpringSecurity.repository;
+
+import com.example.SpringSecurity.model.CustomerAccountSummary;
+import com.example.SpringSecurity.model.SummaryTotals;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CustomerAccountSummaryRepository extends JpaRepository<CustomerAccountSummary, Long> {
+
+    // select ... for update: concurrent recomputations of the same customer run one after the other,
+    // so the last one to write has also read the newest source rows
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from CustomerAccountSummary s where s.customerId = :customerId")
+    Optional<CustomerAccountSummary> findForUpdate(@Param("customerId") long customerId);
+
+    // The sources of the summary. Each one is an aggregate over the customer_id index of its table.
+    @Query("select count(c) as count, coalesce(sum(c.totalLimit), 0) as firstSum, coalesce(sum(c.amountUsed), 0) as secondSum "
+            + "from Cards c where c.customerId = :customerId")
+    SummaryTotals cardTotals(@Param("customerId") long customerId);
+
+    @Query("select count(l) as count, coalesce(sum(l.totalLoan), 0) as firstSum, coalesce(sum(l.outstandingAmount), 0) as secondSum "
+            + "from Loans l where l.customerId = :customerId")
+    SummaryTotals loanTotals(@Param("customerId") long customerId);
+
+    // Customers for the full rebuild and the consistency check, read in id order one chunk at a time
+    @Query("select c.id from Customer c where c.id > :afterId order by c.id")
+    List<Long> findCustomerIdsAfter(@Param("afterId") long afterId, Limit limit);
+
+}
@@ -1,9 +1,13 @@
 package com.example.SpringSecurity.repository;
 
 import com.example.SpringSecurity.model.Customer;
+import com.example.SpringSecurity.model.CustomerAuthRow;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -11,4 +15,11 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
     Optional<Customer> findByEmail(String email);
 
+    // Everything EazyBankUserDetailsService needs, in one SQL statement with a left join, instead of loading the
+    // Customer entity and then its authorities with a second select. No entity is created, so nothing ends up in
+    // the persistence context either.
+    @Query("select c.email as email, c.pwd as pwd, a.name as authority "
+            + "from Customer c left join c.authorities a where c.email = :email")
+    List<CustomerAuthRow> findAuthRowsByEmail(@Param("email") String email);
+
 }
@@ -1,7 +1,10 @@
 package com.example.SpringSecurity.repository;
 
 import com.example.SpringSecurity.model.Loans;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,6 +14,11 @@ public interface LoanRepository extends JpaRepository<Loans, Long> {
 
     // @PreAuthorize is used to check user access before executing the method.
     //@PreAuthorize("hasRole('USER')")
+    // Cached like AccountsRepository.findByCustomerId
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "loans-by-customer")
+    })
     List<Loans> findByCustomerIdOrderByStartDtDesc(long customerId);
 
 }
@@ -11,6 +11,7 @@ import java.util.List;
 public interface NoticeRepository extends JpaRepository<Notice, Long> {
 
     // CURDATE() is a function that returns the current date. In some databases, this function is also used as CURRENT_DATE().
+    // Not in the query cache: a cached result would not notice the date change. NoticeSnapshot keeps the result instead.
 
     @Query(value = "from Notice n where CURDATE() BETWEEN n.noticBegDt AND n.noticEndDt")
     List<Notice> findAllActiveNotices();
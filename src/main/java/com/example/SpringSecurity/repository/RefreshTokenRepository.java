@@ -0,0 +1,46 @@
+package com.example.SpringSecurity.repository;
+
+import com.example.SpringSecurity.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    // Returns 0 if another request already used the token, so two parallel refreshes cannot both succeed
+    @Modifying
+    @Query("update RefreshToken r set r.used = true where r.id = :id and r.used = false")
+    int markUsed(@Param("id") long id);
+
+    @Modifying
+    @Query("update RefreshToken r set r.revoked = true where r.familyId = :familyId")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    @Modifying
+    @Query("update RefreshToken r set r.revoked = true where r.familyId in :familyIds")
+    int revokeFamilies(@Param("familyIds") List<String> familyIds);
+
+    @Modifying
+    @Query("update RefreshToken r set r.revoked = true where r.username = :username and r.revoked = false")
+    int revokeAllForUsername(@Param("username") String username);
+
+    // The families of the user that can still be refreshed, the most recently used first
+    @Query("select r.familyId from RefreshToken r where r.username = :username and r.revoked = false " +
+            "group by r.familyId order by max(r.id) desc")
+    List<String> findActiveFamilies(@Param("username") String username);
+
+    // A revoked token can never be exchanged again, so it is deleted together with the expired ones
+    @Modifying
+    @Query("delete from RefreshToken r where r.expiresAt < :now or r.revoked = true")
+    int deleteExpiredOrRevoked(@Param("now") Timestamp now);
+
+}
@@ -0,0 +1,146 @@
+package com.example.SpringSecurity.service;
+
+import com.example.SpringSecurity.model.AccountTransactions;
+import com.example.SpringSecurity.model.CustomerAccountSummary;
+import com.example.SpringSecurity.model.SummaryTotals;
+import com.example.SpringSecurity.repository.AccountTransactionsRepository;
+import com.example.SpringSecurity.repository.CustomerAccountSummaryRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+public class AccountSummaryService {
+
+    // Maintains customer_account_summary. A summary is always recomputed from the source tables for one customer
+    // (the newest transaction through the (customer_id, transaction_dt, transaction_id) index, and a count/sum over the
+    // customer_id index of cards and of loans) instead of adding deltas to it: a @PostUpdate listener only sees the new
+    // state of a row, so a delta could not be computed for an update, and a recomputation repairs the row whatever happened before.
+    // Every recomputation runs in a transaction of its own (REQUIRES_NEW), because it is triggered after the commit of
+    // the transaction that changed the source rows (AccountSummaryUpdater).
+
+    private static final int CHUNK_SIZE = 500;
+
+    public record ConsistencyReport(long checked, long mismatched, List<Long> mismatchedCustomerIds) {
+    }
+
+    private final CustomerAccountSummaryRepository summaryRepository;
+    private final AccountTransactionsRepository accountTransactionsRepository;
+    private final TransactionTemplate newTransaction;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public AccountSummaryService(CustomerAccountSummaryRepository summaryRepository,
+                                 AccountTransactionsRepository accountTransactionsRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.summaryRepository = summaryRepository;
+        this.accountTransactionsRepository = accountTransactionsRepository;
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    // /myAccountSummary: a primary key lookup. A customer whose summary was never built gets it built now.
+    public CustomerAccountSummary getSummary(long customerId) {
+        return summaryRepository.findById(customerId).orElseGet(() -> recompute(customerId));
+    }
+
+    public CustomerAccountSummary recompute(long customerId) {
+        try {
+            return newTransaction.execute(status -> recomputeInTransaction(customerId));
+        } catch (DataIntegrityViolationException ex) {
+            // Two transactions inserted the first summary of the customer at the same time,
+            // the row exists now, so the second attempt locks and updates it
+            return newTransaction.execute(status -> recomputeInTransaction(customerId));
+        }
+    }
+
+    private CustomerAccountSummary recomputeInTransaction(long customerId) {
+        CustomerAccountSummary summary = summaryRepository.findForUpdate(customerId).orElseGet(CustomerAccountSummary::new);
+        CustomerAccountSummary fresh = compute(customerId);
+        summary.setCustomerId(customerId);
+        summary.setClosingBalance(fresh.getClosingBalance());
+        summary.setLastTransactionDt(fresh.getLastTransactionDt());
+        summary.setCardCount(fresh.getCardCount());
+        summary.setCardsTotalLimit(fresh.getCardsTotalLimit());
+        summary.setCardsAmountUsed(fresh.getCardsAmountUsed());
+        summary.setLoanCount(fresh.getLoanCount());
+        summary.setLoansTotal(fresh.getLoansTotal());
+        summary.setLoansOutstanding(fresh.getLoansOutstanding());
+        summary.setUpdatedAt(new Timestamp(System.currentTimeMillis()));
+        return summaryRepository.saveAndFlush(summary);
+    }
+
+    // The summary as the source tables say it should be, not saved
+    private CustomerAccountSummary compute(long customerId) {
+        CustomerAccountSummary summary = new CustomerAccountSummary();
+        summary.setCustomerId(customerId);
+        List<AccountTransactions> newest = accountTransactionsRepository.findFirstPage(customerId, Limit.of(1));
+        if (!newest.isEmpty()) {
+            summary.setClosingBalance(newest.get(0).getClosingBalance());
+            summary.setLastTransactionDt(newest.get(0).getTransactionDt());
+        }
+        SummaryTotals cards = summaryRepository.cardTotals(customerId);
+        summary.setCardCount(cards.getCount());
+        summary.setCardsTotalLimit(cards.getFirstSum());
+        summary.setCardsAmountUsed(cards.getSecondSum());
+        SummaryTotals loans = summaryRepository.loanTotals(customerId);
+        summary.setLoanCount(loans.getCount());
+        summary.setLoansTotal(loans.getFirstSum());
+        summary.setLoansOutstanding(loans.getSecondSum());
+        return summary;
+    }
+
+    // Recomputes the summary of every customer, e.g. after the table was created or after rows were changed
+    // by SQL outside the application. Each customer is its own short transaction, so the source tables are never locked for long.
+    public long rebuildAll() {
+        long rebuilt = 0;
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            ids = summaryRepository.findCustomerIdsAfter(afterId, Limit.of(CHUNK_SIZE));
+            for (Long id : ids) {
+                recompute(id);
+                rebuilt++;
+                afterId = id;
+            }
+        } while (ids.size() == CHUNK_SIZE);
+        return rebuilt;
+    }
+
+    // Compares every stored summary with a fresh computation from the source tables. A missing summary counts as a mismatch.
+    // At most maxReported customer ids are returned, the count covers all of them.
+    public ConsistencyReport check(int maxReported) {
+        long checked = 0;
+        long mismatched = 0;
+        List<Long> mismatchedIds = new ArrayList<>();
+        long afterId = 0;
+        List<Long> ids;
+        do {
+            long from = afterId;
+            ids = summaryRepository.findCustomerIdsAfter(from, Limit.of(CHUNK_SIZE));
+            for (Long id : ids) {
+                Boolean consistent = readOnlyTransaction.execute(status -> summaryRepository.findById(id)
+                        .map(stored -> stored.sameTotals(compute(id)))
+                        .orElse(false));
+                checked++;
+                if (!Boolean.TRUE.equals(consistent)) {
+                    mismatched++;
+                    if (mismatchedIds.size() < maxReported) {
+                        mismatchedIds.add(id);
+                    }
+                }
+                afterId = id;
+            }
+        } while (ids.size() == CHUNK_SIZE);
+        return new ConsistencyReport(checked, mismatched, mismatchedIds);
+    }
+
+}
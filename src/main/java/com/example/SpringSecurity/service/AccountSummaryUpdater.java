@@ -0,0 +1,86 @@
+package com.example.SpringSecurity.service;
+
+import com.example.SpringSecurity.model.AccountTransactions;
+import com.example.SpringSecurity.model.Cards;
+import com.example.SpringSecurity.model.Loans;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// JPA entity listener of AccountTransactions, Cards and Loans. It only notes which customers were touched;
+// their summaries are recomputed once per customer after the transaction committed, so a transaction that imports
+// 1000 transactions of a customer causes one recomputation, a rolled back transaction causes none,
+// and the recomputation reads committed rows.
+// Changes made with SQL or bulk JPQL updates do not go through JPA listeners: AccountSummaryService.check finds them
+// and rebuildAll repairs them.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountSummaryUpdater {
+
+    // Looked up lazily for the same reason as in UserCacheInvalidator
+    private final ObjectProvider<AccountSummaryService> accountSummaryService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void entityChanged(Object entity) {
+        long customerId;
+        if (entity instanceof AccountTransactions transaction) {
+            customerId = transaction.getCustomerId();
+        } else if (entity instanceof Cards card) {
+            customerId = card.getCustomerId();
+        } else if (entity instanceof Loans loan) {
+            customerId = loan.getCustomerId();
+        } else {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            recompute(Set.of(customerId));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> changed = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (changed == null) {
+            Set<Long> customers = new LinkedHashSet<>();
+            changed = customers;
+            TransactionSynchronizationManager.bindResource(this, customers);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recompute(customers);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AccountSummaryUpdater.this);
+                }
+            });
+        }
+        changed.add(customerId);
+    }
+
+    private void recompute(Set<Long> customerIds) {
+        accountSummaryService.ifAvailable(service -> {
+            for (Long customerId : customerIds) {
+                try {
+                    service.recompute(customerId);
+                } catch (RuntimeException ex) {
+                    // The source rows are committed, a failed summary must not turn that into an error for the caller.
+                    // The consistency check reports the customer until the next change or rebuild fixes it.
+                    log.error("Recomputing the account summary of customer {} failed", customerId, ex);
+                }
+            }
+        });
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.example.SpringSecurity.service;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class AuthorityRegistry {
+
+    // The application only has a handful of distinct role combinations (ROLE_USER, ROLE_USER,ROLE_ADMIN, ...),
+    // but AuthorityUtils.commaSeparatedStringToAuthorityList builds a new list of SimpleGrantedAuthority objects
+    // on every request. This registry keeps one shared, unmodifiable list per distinct "authorities" claim,
+    // so after the first request for a combination, resolving it is a single map lookup without any allocation.
+    // The claims are signed by us, so the number of combinations is small, but the registry is still bounded:
+    // once MAX_SIZE combinations are known, new ones are parsed without being remembered.
+
+    // Compact encoding used inside the JWT: "ROLE_USER,ROLE_ADMIN" is written as "@USER,@ADMIN".
+    // Authorities without the ROLE_ prefix (VIEWACCOUNT, ...) are written as they are.
+    private static final String ROLE_PREFIX = "ROLE_";
+    private static final char COMPACT_ROLE_PREFIX = '@';
+    private static final int MAX_SIZE = 256;
+
+    private final Map<String, List<GrantedAuthority>> registry = new ConcurrentHashMap<>();
+
+    // Accepts both the compact encoding and the old comma-separated form, so tokens issued before the change still work
+    public Collection<GrantedAuthority> resolve(String authoritiesClaim) {
+        if (authoritiesClaim == null || authoritiesClaim.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<GrantedAuthority> authorities = registry.get(authoritiesClaim);
+        if (authorities != null) {
+            return authorities;
+        }
+        authorities = parse(authoritiesClaim);
+        if (registry.size() < MAX_SIZE) {
+            List<GrantedAuthority> existing = registry.putIfAbsent(authoritiesClaim, authorities);
+            return existing != null ? existing : authorities;
+        }
+        return authorities;
+    }
+
+    // Used by EazyBankUserDetailsService: the names are sorted first so the same roles always map to the same entry
+    public Collection<GrantedAuthority> resolve(Collection<String> authorityNames) {
+        return resolve(String.join(",", new TreeSet<>(authorityNames)));
+    }
+
+    public String encode(Collection<? extends GrantedAuthority> authorities) {
+        StringBuilder encoded = new StringBuilder();
+        for (GrantedAuthority authority : authorities) {
+            if (encoded.length() > 0) {
+                encoded.append(',');
+            }
+            String name = authority.getAuthority();
+            if (name.startsWith(ROLE_PREFIX)) {
+                encoded.append(COMPACT_ROLE_PREFIX).append(name, ROLE_PREFIX.length(), name.length());
+            } else {
+                encoded.append(name);
+            }
+        }
+        return encoded.toString();
+    }
+
+    private List<GrantedAuthority> parse(String authoritiesClaim) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (String name : authoritiesClaim.split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (name.charAt(0) == COMPACT_ROLE_PREFIX) {
+                name = ROLE_PREFIX + name.substring(1);
+            }
+            authorities.add(new SimpleGrantedAuthority(name));
+        }
+        return Collections.unmodifiableList(authorities);
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.example.SpringSecurity.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+
+@Component
+public class CaffeineUserCache implements UserCache {
+
+    // Every HTTP Basic request and every /apiLogin used to run findByEmail plus the authorities query.
+    // EazyBankUserDetailsService now asks this cache first. Entries live at most user-cache.ttl and the cache holds
+    // at most user-cache.max-size users (Caffeine evicts the least useful ones), so a stale entry can never live long
+    // and memory is bounded. Changes to a customer or to its authorities evict the user right away (UserCacheInvalidator),
+    // but only when they are made through JPA on this instance: after a change with SQL or on another instance, the old
+    // password and authorities keep working for up to user-cache.ttl.
+    // Only found users are cached: an unknown username always goes to the database, so registerUser does not race with it.
+    // Hit/miss/eviction metrics are published as cache.gets, cache.evictions, ... with tag cache=userDetails.
+
+    private final boolean enabled;
+    private final Cache<String, UserDetails> cache;
+
+    public CaffeineUserCache(@Value("${security.user-cache.enabled:false}") boolean enabled,
+                             @Value("${security.user-cache.ttl:PT5M}") Duration ttl,
+                             @Value("${security.user-cache.max-size:10000}") long maxSize,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userDetails");
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        return enabled ? cache.getIfPresent(username) : null;
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        if (enabled) {
+            cache.put(user.getUsername(), user);
+        }
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        cache.invalidate(username);
+        // A request running between the flush and the commit of the change could load the old rows again,
+        // so the user is evicted a second time once the transaction has committed.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidate(username);
+                }
+            });
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package com.example.SpringSecurity.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.password.CompromisedPasswordChecker;
+import org.springframework.security.authentication.password.CompromisedPasswordDecision;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.security.web.authentication.password.HaveIBeenPwnedRestApiPasswordChecker;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Slf4j
+public final class CompromisedPasswordCheckers {
+
+    // Chooses the CompromisedPasswordChecker with security.compromised-password.checker:
+    // offline -> LocalCompromisedPasswordChecker on the corpus file, no network call
+    // rest    -> HaveIBeenPwnedRestApiPasswordChecker, a blocking HTTPS call to api.pwnedpasswords.com on every /register
+    // none    -> every password is accepted
+    // If the corpus file is missing or damaged, offline falls back to rest only when rest-fallback is true,
+    // otherwise the check is turned off (none) with a warning, so /register never calls the API unless it is configured.
+    // The REST checker gets connect and read timeouts of rest-timeout: it fails open (an error counts as not compromised),
+    // and without a timeout a slow API would hold the request thread for as long as the socket stays open.
+
+    public static final String OFFLINE = "offline";
+    public static final String REST = "rest";
+    public static final String NONE = "none";
+
+    private static final String API_URL = "https://api.pwnedpasswords.com/range/";
+
+    private CompromisedPasswordCheckers() {
+    }
+
+    public static CompromisedPasswordChecker create(String checker, String corpus, boolean restFallback, Duration restTimeout) {
+        switch (checker) {
+            case OFFLINE -> {
+                Path corpusPath = Path.of(corpus);
+                if (Files.isReadable(corpusPath)) {
+                    try {
+                        LocalCompromisedPasswordChecker localChecker = new LocalCompromisedPasswordChecker(corpusPath);
+                        log.info("Compromised password check: {} hashes in {}", localChecker.size(), corpusPath);
+                        return localChecker;
+                    } catch (IOException ex) {
+                        return fallback(restFallback, restTimeout, "Compromised password corpus " + corpusPath
+                                + " cannot be used (" + ex.getMessage() + ")");
+                    }
+                }
+                return fallback(restFallback, restTimeout, "Compromised password corpus " + corpusPath + " not found");
+            }
+            case REST -> {
+                return rest(restTimeout);
+            }
+            case NONE -> {
+                return none();
+            }
+            default -> throw new IllegalArgumentException("Unknown security.compromised-password.checker: " + checker);
+        }
+    }
+
+    private static CompromisedPasswordChecker fallback(boolean restFallback, Duration restTimeout, String problem) {
+        if (restFallback) {
+            log.warn("{}, using the REST API instead", problem);
+            return rest(restTimeout);
+        }
+        log.warn("{}, compromised passwords are NOT checked. Create the corpus with PwnedPasswordsImporter, "
+                + "or set security.compromised-password.checker=rest", problem);
+        return none();
+    }
+
+    static HaveIBeenPwnedRestApiPasswordChecker rest(Duration timeout) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        HaveIBeenPwnedRestApiPasswordChecker checker = new HaveIBeenPwnedRestApiPasswordChecker();
+        checker.setRestClient(RestClient.builder().baseUrl(API_URL).requestFactory(requestFactory).build());
+        return checker;
+    }
+
+    private static CompromisedPasswordChecker none() {
+        return password -> new CompromisedPasswordDecision(false);
+    }
+
+}
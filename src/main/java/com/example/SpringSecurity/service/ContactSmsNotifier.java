@@ -0,0 +1,78 @@
+package com.example.SpringSecurity.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+@Slf4j
+@Service
+public class ContactSmsNotifier {
+
+    // The SMS used to be sent inside the /contact request, so the client waited for the SMS provider's HTTPS round trip.
+    // @Async runs it on Spring Boot's applicationTaskExecutor instead: a bounded platform thread pool by default,
+    // a virtual thread per task with the virtual profile (spring.threads.virtual.enabled=true).
+    // The timeouts keep a slow provider from holding a worker forever.
+
+    private static final String SMS_URL = "https://console.melipayamak.com/api/send/simple/dea72f061d9d4afaaebfff133de91263";
+    private static final int CONNECT_TIMEOUT_MILLIS = 5_000;
+    private static final int READ_TIMEOUT_MILLIS = 10_000;
+
+    @Async
+    public void sendContactSms() {
+        HttpURLConnection conn = null;
+        try {
+            URL url = new URL(SMS_URL);
+            conn = (HttpURLConnection) url.openConnection();
+            conn.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+            conn.setReadTimeout(READ_TIMEOUT_MILLIS);
+            conn.setRequestMethod("POST");
+            conn.setRequestProperty("Content-Type", "application/json; utf-8");
+            conn.setRequestProperty("Accept", "application/json");
+            conn.setDoOutput(true);
+
+            String params = "{\"from\": \"50002710023346\", \"to\": \"09105297973\", \"text\": \"test sms\"}";
+            try (DataOutputStream dos = new DataOutputStream(conn.getOutputStream())) {
+                byte[] paramsAsByte = params.getBytes(StandardCharsets.UTF_8);
+                dos.write(paramsAsByte, 0, paramsAsByte.length);
+            }
+
+            int responseCode = conn.getResponseCode();
+            log.info("SMS response code: {}, response: {}", responseCode, read(conn.getInputStream()));
+        } catch (Exception e) {
+            String errorResponse = "";
+            if (conn != null && conn.getErrorStream() != null) {
+                try {
+                    errorResponse = read(conn.getErrorStream());
+                } catch (IOException ex) {
+                    errorResponse = ex.getMessage();
+                }
+            }
+            log.error("Sending the contact SMS failed: {} {}", e.getMessage(), errorResponse);
+        } finally {
+            if (conn != null) {
+                conn.disconnect();
+            }
+        }
+    }
+
+    private String read(InputStream inputStream) throws IOException {
+        try (BufferedReader br = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            StringBuilder response = new StringBuilder();
+            String responseLine;
+            while ((responseLine = br.readLine()) != null) {
+                response.append(responseLine.trim());
+            }
+            return response.toString();
+        }
+    }
+
+}
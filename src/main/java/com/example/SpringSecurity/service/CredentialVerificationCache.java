@@ -0,0 +1,107 @@
+package com.example.SpringSecurity.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+@Component
+public class CredentialVerificationCache {
+
+    // Machine-to-machine clients send HTTP Basic credentials on every call, and a bcrypt check costs tens of milliseconds
+    // of CPU. After a successful bcrypt match, the prod AuthenticationProvider stores HMAC-SHA256(username, password,
+    // stored hash) here, so the next request with the same credentials is checked with one HMAC.
+    // - The HMAC key is random and lives only in memory, so a restart wipes everything and a heap dump of the entries
+    //   cannot be brute forced offline the way a fast unkeyed hash could.
+    // - The stored password hash is part of the HMAC input, so after a password change the old entry no longer matches.
+    //   UserCacheInvalidator also evicts the user as soon as the customer row changes through JPA on this instance.
+    // - Entries expire after credential-cache.ttl (30 seconds by default) and the cache is bounded by credential-cache.max-size.
+    //   A password changed with SQL or by another instance still works here until the entry expires.
+    // - The comparison uses MessageDigest.isEqual, which takes the same time wherever the bytes differ.
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final boolean enabled;
+    private final Cache<String, byte[]> cache;
+    private final SecretKeySpec secretKey;
+    private final Queue<Mac> macs = new ConcurrentLinkedQueue<>();
+
+    public CredentialVerificationCache(@Value("${security.credential-cache.enabled:false}") boolean enabled,
+                                       @Value("${security.credential-cache.ttl:PT30S}") Duration ttl,
+                                       @Value("${security.credential-cache.max-size:10000}") long maxSize,
+                                       MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "credentialVerification");
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.secretKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+    }
+
+    public boolean matches(String username, String rawPassword, String storedHash) {
+        if (!enabled) {
+            return false;
+        }
+        byte[] expected = cache.getIfPresent(username);
+        return expected != null && MessageDigest.isEqual(expected, hmac(username, rawPassword, storedHash));
+    }
+
+    // Call only after the PasswordEncoder has confirmed the password
+    public void put(String username, String rawPassword, String storedHash) {
+        if (enabled) {
+            cache.put(username, hmac(username, rawPassword, storedHash));
+        }
+    }
+
+    public void evict(String username) {
+        cache.invalidate(username);
+    }
+
+    // A Mac is not thread safe and Mac.getInstance is slow. Initialized instances are kept in a lock-free pool rather
+    // than in a ThreadLocal, because with virtual threads every request runs on a new thread and a ThreadLocal would
+    // create a new Mac each time.
+    private byte[] hmac(String username, String rawPassword, String storedHash) {
+        Mac instance = macs.poll();
+        if (instance == null) {
+            instance = newMac();
+        }
+        try {
+            // Each part is followed by a 0 byte, so ("ab", "c") and ("a", "bc") cannot produce the same input
+            instance.update(username.getBytes(StandardCharsets.UTF_8));
+            instance.update((byte) 0);
+            instance.update(rawPassword.getBytes(StandardCharsets.UTF_8));
+            instance.update((byte) 0);
+            instance.update(storedHash.getBytes(StandardCharsets.UTF_8));
+            return instance.doFinal();
+        } finally {
+            macs.offer(instance);
+        }
+    }
+
+    private Mac newMac() {
+        try {
+            Mac instance = Mac.getInstance(HMAC_ALGORITHM);
+            instance.init(secretKey);
+            return instance;
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+}
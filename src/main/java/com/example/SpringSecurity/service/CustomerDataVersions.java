@@ -0,0 +1,124 @@
+package com.example.SpringSecurity.service;
+
+import com.example.SpringSecurity.model.Accounts;
+import com.example.SpringSecurity.model.Cards;
+import com.example.SpringSecurity.model.Loans;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+// Version-based ETags for /myAccount, /myCards and /myLoans, which mobile clients poll constantly.
+// customer_data_version has one change counter per customer for each of the three tables. This class is also the JPA
+// entity listener of Accounts, Cards and Loans and increments the counter of the customer in the same transaction
+// as the change, so a counter can never be newer or older than the committed rows.
+// A poll with a matching If-None-Match costs one primary key lookup of a single number and a 304: the entities are
+// not loaded and nothing is serialized.
+// The counters are read and written with JdbcTemplate, not JPA, because a listener runs during a Hibernate flush.
+// Rows changed with SQL outside the application do not change the counter, clients see them after the next JPA change.
+@Component
+public class CustomerDataVersions {
+
+    public enum Resource {
+
+        ACCOUNTS("accounts_version"), CARDS("cards_version"), LOANS("loans_version");
+
+        private final String column;
+
+        Resource(String column) {
+            this.column = column;
+        }
+    }
+
+    // The data of a resource together with the ETag of exactly that data
+    public record Versioned<T>(String etag, T data) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    // Looked up lazily: this class is also an entity listener, created while the EntityManagerFactory is being built
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+    private volatile TransactionTemplate readOnlyTransaction;
+
+    public CustomerDataVersions(JdbcTemplate jdbcTemplate, ObjectProvider<PlatformTransactionManager> transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+    }
+
+    // The ETag of the resource for the customer, e.g. "cards-42-1718000000123". Enough to answer a conditional GET.
+    public String etag(Resource resource, long customerId) {
+        List<Long> versions = jdbcTemplate.queryForList(
+                "select " + resource.column + " from customer_data_version where customer_id = ?", Long.class, customerId);
+        long version = versions.isEmpty() ? 0 : versions.get(0);
+        return "\"" + resource.name().toLowerCase(Locale.ROOT) + "-" + customerId + "-" + version + "\"";
+    }
+
+    // Reads the counter and the data in one read-only transaction. On MySQL (REPEATABLE READ) both then come from the
+    // same snapshot, so a change committed in between can neither pair old data with a new ETag (the client would keep
+    // the old data until the next change) nor new data with an old one.
+    public <T> Versioned<T> read(Resource resource, long customerId, Supplier<T> loader) {
+        return readOnlyTransaction().execute(status -> {
+            String etag = etag(resource, customerId);
+            return new Versioned<>(etag, loader.get());
+        });
+    }
+
+    private TransactionTemplate readOnlyTransaction() {
+        TransactionTemplate template = readOnlyTransaction;
+        if (template == null) {
+            template = new TransactionTemplate(transactionManager.getObject());
+            template.setReadOnly(true);
+            readOnlyTransaction = template;
+        }
+        return template;
+    }
+
+    // true when the If-None-Match of the request matches: Spring has then set status 304 and the ETag header,
+    // and the controller returns null without loading anything. request is null for internal calls (/myDashboard).
+    public boolean notModified(WebRequest request, String etag) {
+        return request != null && request.checkNotModified(etag);
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void entityChanged(Object entity) {
+        if (entity instanceof Accounts account) {
+            bump(Resource.ACCOUNTS, account.getCustomerId());
+        } else if (entity instanceof Cards card) {
+            bump(Resource.CARDS, card.getCustomerId());
+        } else if (entity instanceof Loans loan) {
+            bump(Resource.LOANS, loan.getCustomerId());
+        }
+    }
+
+    // A new row starts all counters at the current time instead of 1, so a recreated table or database
+    // does not hand out an ETag that a client has already seen for other data.
+    // Plain update-then-insert instead of MySQL's ON DUPLICATE KEY UPDATE, so it also runs on the H2 test database.
+    private void bump(Resource resource, long customerId) {
+        int updated = jdbcTemplate.update("update customer_data_version set " + resource.column + " = "
+                + resource.column + " + 1 where customer_id = ?", customerId);
+        if (updated > 0) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            jdbcTemplate.update("insert into customer_data_version (customer_id, accounts_version, cards_version, loans_version) "
+                    + "values (?, ?, ?, ?)", customerId, start, start, start);
+        } catch (DuplicateKeyException ex) {
+            // Another transaction inserted the row first, which also changed the ETag, but the change is counted anyway
+            jdbcTemplate.update("update customer_data_version set " + resource.column + " = "
+                    + resource.column + " + 1 where customer_id = ?", customerId);
+        }
+    }
+
+}
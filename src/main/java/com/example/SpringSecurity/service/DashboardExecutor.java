@@ -0,0 +1,102 @@
+package com.example.SpringSecurity.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+public class DashboardExecutor {
+
+    // Runs the parts of /myDashboard at the same time on a pool of its own, the same way BoundedPasswordEncoder does:
+    // at most pool-size parts run at once and at most queue-capacity wait, a part that does not fit is not run ("busy")
+    // instead of piling up. The pool is wrapped in DelegatingSecurityContextExecutorService, so every part runs with the
+    // SecurityContext of the request and method security (@PreAuthorize, @PostAuthorize) is checked exactly as for the
+    // single endpoints. Pool metrics are published by ExecutorServiceMetrics (name=dashboard); the parts are submitted
+    // through the executor it returns, otherwise the task times (executor, executor.idle) would not be recorded.
+
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService executor;
+    private final Duration partTimeout;
+
+    public DashboardExecutor(@Value("${dashboard.pool-size:8}") int poolSize,
+                             @Value("${dashboard.queue-capacity:64}") int queueCapacity,
+                             @Value("${dashboard.part-timeout:PT2S}") Duration partTimeout,
+                             MeterRegistry meterRegistry) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "dashboard-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor = new DelegatingSecurityContextExecutorService(
+                ExecutorServiceMetrics.monitor(meterRegistry, pool, "dashboard"));
+        this.partTimeout = partTimeout;
+    }
+
+    public <T> Future<T> submit(Callable<T> part) {
+        try {
+            return executor.submit(part);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    // The deadline of all parts of one request, each part has part-timeout from the moment they were submitted
+    public long deadline() {
+        return System.nanoTime() + partTimeout.toNanos();
+    }
+
+    // The result of the part, or null with the reason in errors. A part that missed the deadline is cancelled.
+    public <T> T await(String name, Future<T> future, long deadline, Map<String, String> errors) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            errors.put(name, "timeout");
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            errors.put(name, "timeout");
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof AccessDeniedException) {
+                errors.put(name, "forbidden");
+            } else if (cause instanceof RejectedExecutionException) {
+                errors.put(name, "busy");
+            } else {
+                log.error("Dashboard part {} failed", name, cause);
+                errors.put(name, "error");
+            }
+        }
+        return null;
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.shutdownNow();
+    }
+
+}
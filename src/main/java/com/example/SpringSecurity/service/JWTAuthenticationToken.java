@@ -0,0 +1,75 @@
+package com.example.SpringSecurity.service;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.Collection;
+
+// Authentication created from a verified JWT. Once built it cannot be changed, so the same instance can be
+// kept in the JWTTokenCache and placed into the SecurityContext of many requests at the same time.
+public final class JWTAuthenticationToken extends AbstractAuthenticationToken {
+
+    private final String username;
+    private final Collection<GrantedAuthority> authorities;
+    private final String tokenId;
+    private final long issuedAt;
+    private final long expiresAt;
+
+    // The authorities must already be unmodifiable (AuthorityRegistry hands out shared unmodifiable lists),
+    // so they are kept as they are instead of being copied by AbstractAuthenticationToken on every request.
+    // tokenId is the jti claim (null for tokens issued before jti was added), issuedAt and expiresAt are in milliseconds.
+    public JWTAuthenticationToken(String username, Collection<GrantedAuthority> authorities,
+                                  String tokenId, long issuedAt, long expiresAt) {
+        super(AuthorityUtils.NO_AUTHORITIES);
+        this.username = username;
+        this.authorities = authorities;
+        this.tokenId = tokenId;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+        super.setAuthenticated(true);
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null; // The JWT itself is never kept as a credential
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return username;
+    }
+
+    // As in UsernamePasswordAuthenticationToken, only the constructor can mark the token as authenticated.
+    // setAuthenticated(false) is allowed; on a cached instance it fails closed for every request that shares it.
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        if (authenticated) {
+            throw new IllegalArgumentException("Cannot set this token to trusted, use the constructor instead");
+        }
+        super.setAuthenticated(false);
+    }
+
+    // Ignored: the same instance is shared between requests (JWTTokenCache), so per-request details must not be stored in it
+    @Override
+    public void setDetails(Object details) {
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.example.SpringSecurity.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+public class JWTIssuancePolicy {
+
+    // JWTTokenGeneratorFilter used to sign a new token on every call to /user, even when the caller
+    // had just presented a token with plenty of lifetime left. With the THRESHOLD mode, the presented token is
+    // sent back as it is and a new token is only signed when less than jwt.reissue.threshold of its lifetime remains.
+    // ALWAYS restores the old behaviour. The counters show how much signing work the policy saves.
+
+    public enum Mode { ALWAYS, THRESHOLD }
+
+    private final Mode mode;
+    private final long thresholdMillis;
+    private final Counter issued;
+    private final Counter reused;
+
+    public JWTIssuancePolicy(@Value("${jwt.reissue.mode:THRESHOLD}") Mode mode,
+                             @Value("${jwt.reissue.threshold:PT5M}") Duration threshold,
+                             MeterRegistry meterRegistry) {
+        this.mode = mode;
+        this.thresholdMillis = threshold.toMillis();
+        this.issued = Counter.builder("jwt.tokens").tag("result", "issued").register(meterRegistry);
+        this.reused = Counter.builder("jwt.tokens").tag("result", "reused").register(meterRegistry);
+    }
+
+    // True if the request was authenticated with a JWT that is still valid for longer than the threshold
+    public boolean canReuse(Authentication authentication) {
+        return mode == Mode.THRESHOLD
+                && authentication instanceof JWTAuthenticationToken jwtAuthentication
+                && jwtAuthentication.getExpiresAt() - System.currentTimeMillis() > thresholdMillis;
+    }
+
+    public void recordIssued() {
+        issued.increment();
+    }
+
+    public void recordReused() {
+        reused.increment();
+    }
+
+}
@@ -0,0 +1,181 @@
+package com.example.SpringSecurity.service;
+
+import com.example.SpringSecurity.constants.ApplicationConstants;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.Jwks;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.PublicJwk;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.SecretKey;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class JWTKeyRing extends LocatorAdapter<Key> {
+
+    // With HS256 every service that wants to verify our tokens needs the shared secret, and changing the secret
+    // invalidates every token at once. In ES256 or EdDSA mode tokens are signed with a private key and carry
+    // the key id (kid) in their header. Other services only need the public keys, which are published
+    // at /.well-known/jwks.json, and can verify tokens locally.
+    // Rotation: the keystore can hold several keys. jwt.signing.kid selects the alias that signs new tokens,
+    // every other key entry or trusted certificate in the keystore stays a verification key.
+    // So a new key is added, made active, and the old alias is removed only after its last token expired.
+    // Tokens without a kid are the old HS256 tokens. They are rejected unless jwt.signing.accept-hmac is switched on:
+    // accepting them means anyone who knows JWT_SECRET can still forge tokens, so the switch is only meant for the
+    // migration window (one access-token lifetime after the switch to ES256/EdDSA) and a warning is logged at startup.
+
+    public static final String HS256 = "HS256";
+    public static final String ES256 = "ES256";
+    public static final String EDDSA = "EdDSA";
+
+    private final String algorithm;
+    private final String signingKeyId;
+    private final Key signingKey;
+    private final SecretKey hmacKey;
+    private final Map<String, PublicKey> verificationKeys;
+    private final String jwkSetJson;
+
+    @Autowired
+    public JWTKeyRing(Environment env) throws GeneralSecurityException, IOException {
+        this(env.getProperty("jwt.signing.algorithm", HS256),
+                env.getProperty(ApplicationConstants.JWT_SECRET_KEY, ApplicationConstants.JWT_SECRET_DEFAULT_VALUE),
+                env.getProperty("jwt.signing.accept-hmac", Boolean.class, false),
+                loadKeyStore(env.getProperty("jwt.keystore.location"), env.getProperty("jwt.keystore.password", "")),
+                env.getProperty("jwt.keystore.password", ""),
+                env.getProperty("jwt.signing.kid"));
+    }
+
+    private JWTKeyRing(String algorithm, String hmacSecret, boolean acceptHmac, KeyStore keyStore,
+                       String keyStorePassword, String activeKeyId) throws GeneralSecurityException {
+        this.algorithm = algorithm;
+        SecretKey secretKey = Keys.hmacShaKeyFor(hmacSecret.getBytes(StandardCharsets.UTF_8));
+        Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+        if (HS256.equals(algorithm)) {
+            this.signingKeyId = null;
+            this.signingKey = secretKey;
+            this.hmacKey = secretKey;
+        } else if (ES256.equals(algorithm) || EDDSA.equals(algorithm)) {
+            this.hmacKey = acceptHmac ? secretKey : null;
+            if (acceptHmac) {
+                log.warn("jwt.signing.accept-hmac is on: tokens without kid are still accepted with the shared HS256 secret. "
+                        + "Switch it off once the last HS256 token has expired");
+            }
+            if (keyStore == null) {
+                // Without a keystore every restart creates a new key, which is only acceptable on a developer machine
+                log.warn("No jwt.keystore.location configured, signing {} tokens with a temporary key", algorithm);
+                KeyPair keyPair = generateKeyPair(algorithm);
+                this.signingKeyId = UUID.randomUUID().toString();
+                this.signingKey = keyPair.getPrivate();
+                publicKeys.put(signingKeyId, keyPair.getPublic());
+            } else {
+                if (!StringUtils.hasText(activeKeyId) || !keyStore.isKeyEntry(activeKeyId)) {
+                    throw new IllegalStateException("jwt.signing.kid must name a private key entry of the keystore");
+                }
+                Enumeration<String> aliases = keyStore.aliases();
+                while (aliases.hasMoreElements()) {
+                    String alias = aliases.nextElement();
+                    if (keyStore.getCertificate(alias) != null) {
+                        publicKeys.put(alias, keyStore.getCertificate(alias).getPublicKey());
+                    }
+                }
+                this.signingKeyId = activeKeyId;
+                this.signingKey = keyStore.getKey(activeKeyId, keyStorePassword.toCharArray());
+            }
+        } else {
+            throw new IllegalStateException("Unsupported jwt.signing.algorithm: " + algorithm);
+        }
+        this.verificationKeys = Collections.unmodifiableMap(publicKeys);
+        this.jwkSetJson = publicKeys.entrySet().stream()
+                .map(entry -> Jwks.json((PublicJwk<?>) Jwks.builder().key(entry.getValue()).id(entry.getKey()).build()))
+                .collect(Collectors.joining(",", "{\"keys\":[", "]}"));
+    }
+
+    // Key rings that are not read from the Environment, used by the benchmarks
+    public static JWTKeyRing hmac(String secret) {
+        return generated(HS256, secret);
+    }
+
+    public static JWTKeyRing generated(String algorithm, String hmacSecret) {
+        return generated(algorithm, hmacSecret, false);
+    }
+
+    public static JWTKeyRing generated(String algorithm, String hmacSecret, boolean acceptHmac) {
+        try {
+            return new JWTKeyRing(algorithm, hmacSecret, acceptHmac, null, "", null);
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    // null in HS256 mode, where tokens are issued without a kid header as before
+    public String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    public Key getSigningKey() {
+        return signingKey;
+    }
+
+    public String getJwkSetJson() {
+        return jwkSetJson;
+    }
+
+    @Override
+    protected Key locate(JwsHeader header) {
+        String keyId = header.getKeyId();
+        Key key = keyId == null ? hmacKey : verificationKeys.get(keyId);
+        if (key == null) {
+            throw new UnsupportedJwtException("No verification key for kid " + keyId);
+        }
+        return key;
+    }
+
+    private static KeyPair generateKeyPair(String algorithm) throws GeneralSecurityException {
+        if (ES256.equals(algorithm)) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"));
+            return generator.generateKeyPair();
+        }
+        return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+    }
+
+    private static KeyStore loadKeyStore(String location, String password) throws GeneralSecurityException, IOException {
+        if (!StringUtils.hasText(location)) {
+            return null;
+        }
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream inputStream = new FileInputStream(location)) {
+            keyStore.load(inputStream, password.toCharArray());
+        }
+        return keyStore;
+    }
+
+}
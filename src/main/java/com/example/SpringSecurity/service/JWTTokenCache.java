@@ -0,0 +1,141 @@
+package com.example.SpringSecurity.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class JWTTokenCache {
+
+    // SPA clients send the same JWT on many requests, and each one used to repeat the HMAC check, the Base64 decoding
+    // and the JSON parsing of the claims. This cache remembers tokens that were already verified.
+    // The key is the SHA-256 digest of the token, not the token itself, so every entry has the same small size
+    // no matter how big the token is. Because of that, max-entries is also the memory ceiling of the cache:
+    // a flood of different (even valid) tokens can only replace entries, it can never grow the map.
+    // Caffeine keeps the size bound with its frequency-based admission policy in amortized O(1), so a spray of
+    // one-off tokens costs the same per request when the cache is full as when it is empty, and it does not push
+    // out the tokens that are really used. Every entry expires at the token's exp, so a cached token never outlives the JWT.
+    // Maintenance runs on the calling thread (Runnable::run), so evictions are visible at once and no pool is needed.
+
+    private final boolean enabled;
+    private final Cache<TokenDigest, CachedToken> cache;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public JWTTokenCache(@Value("${jwt.cache.enabled:false}") boolean enabled,
+                         @Value("${jwt.cache.max-entries:10000}") int maxEntries,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.hits = Counter.builder("jwt.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("jwt.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("jwt.cache.evictions").register(meterRegistry);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfter(new Expiry<TokenDigest, CachedToken>() {
+                    @Override
+                    public long expireAfterCreate(TokenDigest key, CachedToken value, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expiresAt() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(TokenDigest key, CachedToken value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(TokenDigest key, CachedToken value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .executor(Runnable::run)
+                .removalListener((TokenDigest key, CachedToken value, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        evictions.increment();
+                    }
+                })
+                .build();
+        Gauge.builder("jwt.cache.size", cache, Cache::estimatedSize).register(meterRegistry);
+    }
+
+    // Returns the prebuilt Authentication of a verified token, or null if the token has to be verified again
+    public JWTAuthenticationToken get(String jwt) {
+        if (!enabled) {
+            return null;
+        }
+        CachedToken cachedToken = cache.getIfPresent(TokenDigest.of(jwt));
+        // Caffeine expires lazily, the exp check makes sure an expired token is never returned in between
+        if (cachedToken == null || cachedToken.isExpired(System.currentTimeMillis())) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return cachedToken.authentication();
+    }
+
+    public void put(String jwt, JWTAuthenticationToken authentication, Date expiration) {
+        if (!enabled || expiration == null) {
+            return;
+        }
+        cache.put(TokenDigest.of(jwt), new CachedToken(authentication, expiration.getTime()));
+    }
+
+    // The number of entries once pending evictions are applied, used by the tests
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    private record CachedToken(JWTAuthenticationToken authentication, long expiresAt) {
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+    }
+
+    private static final class TokenDigest {
+
+        private final byte[] digest;
+        private final int hashCode;
+
+        private TokenDigest(byte[] digest) {
+            this.digest = digest;
+            this.hashCode = Arrays.hashCode(digest);
+        }
+
+        static TokenDigest of(String jwt) {
+            try {
+                MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+                return new TokenDigest(messageDigest.digest(jwt.getBytes(StandardCharsets.US_ASCII)));
+            } catch (NoSuchAlgorithmException exception) {
+                throw new IllegalStateException("SHA-256 is not available", exception);
+            }
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof TokenDigest tokenDigest && MessageDigest.isEqual(digest, tokenDigest.digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.example.SpringSecurity.service;
+
+import com.example.SpringSecurity.constants.ApplicationConstants;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+
+@Service
+public class JWTTokenService {
+
+    // Before this service, every filter and controller read JWT_SECRET from the Environment, ran Keys.hmacShaKeyFor
+    // and built a new JwtParser on each request. The keys do not change while the application is running,
+    // so they are prepared only once in JWTKeyRing and the parser is built once and shared.
+    // JwtParser instances are immutable and thread-safe, so one instance can serve all the Tomcat worker threads.
+
+    // Claim names. "aut" holds the authorities in the compact encoding of AuthorityRegistry,
+    // "authorities" is the old comma-separated claim that is still accepted when reading older tokens.
+    public static final String USERNAME_CLAIM = "username";
+    public static final String AUTHORITIES_CLAIM = "aut";
+    public static final String LEGACY_AUTHORITIES_CLAIM = "authorities";
+    // iat only has whole seconds. "iam" is the issue time in milliseconds, so TokenRevocationService can tell a token
+    // issued just before a "revoke all tokens of this user" from one issued just after it in the same second.
+    public static final String ISSUED_AT_MILLIS_CLAIM = "iam";
+
+    private final JWTKeyRing keyRing;
+    private final JwtParser jwtParser;
+    private final AuthorityRegistry authorityRegistry;
+    private final long accessTokenLifetimeMillis;
+
+    // Access tokens are short-lived; clients get a new one with their refresh token (see RefreshTokenService)
+    public JWTTokenService(JWTKeyRing keyRing, AuthorityRegistry authorityRegistry,
+                           @Value("${jwt.access-token.expiration:PT15M}") Duration accessTokenLifetime) {
+        this.keyRing = keyRing;
+        this.authorityRegistry = authorityRegistry;
+        this.accessTokenLifetimeMillis = accessTokenLifetime.toMillis();
+        this.jwtParser = Jwts.parser().keyLocator(keyRing).build(); // The key is chosen by the kid of each token
+    }
+
+    public String generateToken(Authentication authentication) {
+        Date now = new Date();
+        JwtBuilder builder = Jwts.builder();
+        if (keyRing.getSigningKeyId() != null) {
+            builder.header().keyId(keyRing.getSigningKeyId()).and();
+        }
+        return builder.issuer(ApplicationConstants.JWT_ISSUER).subject("JWT Token")
+                .id(UUID.randomUUID().toString()) // jti, used by TokenRevocationService to revoke a single token
+                .claim(USERNAME_CLAIM, authentication.getName())
+                .claim(AUTHORITIES_CLAIM, authorityRegistry.encode(authentication.getAuthorities())) // The roles are taken from the GrantedAuthority object and converted to a compact comma-separated string.
+                .issuedAt(now)
+                .claim(ISSUED_AT_MILLIS_CLAIM, now.getTime())
+                .expiration(new Date(now.getTime() + accessTokenLifetimeMillis)) // millisecond
+                .signWith(keyRing.getSigningKey()).compact(); // HS256, ES256 or EdDSA is chosen from the type of the key
+    }
+
+    // Throws a JwtException if the signature is invalid or the token is expired
+    public Claims parseToken(String jwt) {
+        return jwtParser.parseSignedClaims(jwt).getPayload();
+    }
+
+    public JWTAuthenticationToken toAuthentication(Claims claims) {
+        Object authorities = claims.get(AUTHORITIES_CLAIM);
+        if (authorities == null) {
+            authorities = claims.get(LEGACY_AUTHORITIES_CLAIM);
+        }
+        return new JWTAuthenticationToken(String.valueOf(claims.get(USERNAME_CLAIM)),
+                authorityRegistry.resolve(authorities == null ? null : authorities.toString()),
+                claims.getId(),
+                issuedAtMillis(claims),
+                claims.getExpiration() == null ? 0 : claims.getExpiration().getTime());
+    }
+
+    // Tokens issued before the "iam" claim was added only have the whole seconds of iat
+    private static long issuedAtMillis(Claims claims) {
+        Object issuedAtMillis = claims.get(ISSUED_AT_MILLIS_CLAIM);
+        if (issuedAtMillis instanceof Number number) {
+            return number.longValue();
+        }
+        return claims.getIssuedAt() == null ? 0 : claims.getIssuedAt().getTime();
+    }
+
+}
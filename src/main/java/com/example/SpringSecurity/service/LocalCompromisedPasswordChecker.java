@@ -0,0 +1,132 @@
+package com.example.SpringSecurity.service;
+
+import org.springframework.security.authentication.password.CompromisedPasswordChecker;
+import org.springframework.security.authentication.password.CompromisedPasswordDecision;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+public class LocalCompromisedPasswordChecker implements CompromisedPasswordChecker, AutoCloseable {
+
+    // Checks passwords against a local copy of the Have I Been Pwned corpus instead of calling its REST API.
+    // The file is created by PwnedPasswordsImporter and contains the leading bytes of every SHA-1 hash, sorted:
+    //   magic "EBPWNED1" (8 bytes) | record length (int) | record count (long) | record 0 | record 1 | ...
+    // The file is memory-mapped, so the OS page cache keeps the hot parts in RAM and the JVM heap is not used at all.
+    // A lookup is a binary search over the records: about 30 comparisons for the full corpus, a few microseconds.
+    // One MappedByteBuffer can cover at most 2 GB, so larger files are mapped as several segments, each holding whole records.
+    // With 10-byte (80-bit) prefixes, the chance that a random password matches a leaked one by accident is about 1 in 10^15.
+
+    static final byte[] MAGIC = "EBPWNED1".getBytes(StandardCharsets.US_ASCII);
+    static final int HEADER_LENGTH = MAGIC.length + Integer.BYTES + Long.BYTES;
+    static final int MIN_RECORD_LENGTH = 4;
+    static final int MAX_RECORD_LENGTH = 20; // a whole SHA-1 hash
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final int recordLength;
+    private final long recordCount;
+    private final long recordsPerSegment;
+
+    public LocalCompromisedPasswordChecker(Path corpus) throws IOException {
+        this.channel = FileChannel.open(corpus, StandardOpenOption.READ);
+        // A file shorter than the header would fail below with a BufferUnderflowException, which callers don't treat as I/O
+        long fileSize = channel.size();
+        if (fileSize < HEADER_LENGTH) {
+            channel.close();
+            throw new IOException(corpus + " is too short for a compromised password corpus (" + fileSize + " bytes)");
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        channel.read(header, 0);
+        header.flip();
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            channel.close();
+            throw new IOException(corpus + " is not a compromised password corpus, create it with PwnedPasswordsImporter");
+        }
+        this.recordLength = header.getInt();
+        this.recordCount = header.getLong();
+        // A damaged header must fail here, not as a division by zero or an index out of bounds during a lookup
+        if (recordLength < MIN_RECORD_LENGTH || recordLength > MAX_RECORD_LENGTH || recordCount < 0) {
+            channel.close();
+            throw new IOException(corpus + " has an invalid header: record length " + recordLength + ", " + recordCount + " records");
+        }
+        if (fileSize != HEADER_LENGTH + recordCount * recordLength) {
+            channel.close();
+            throw new IOException(corpus + " is truncated: expected " + recordCount + " records");
+        }
+        this.recordsPerSegment = Integer.MAX_VALUE / recordLength;
+        int segmentCount = (int) Math.max(1, (recordCount + recordsPerSegment - 1) / recordsPerSegment);
+        this.segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long firstRecord = i * recordsPerSegment;
+            long records = Math.min(recordsPerSegment, recordCount - firstRecord);
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_LENGTH + firstRecord * recordLength,
+                    records * recordLength);
+        }
+    }
+
+    @Override
+    public CompromisedPasswordDecision check(String password) {
+        if (password == null) {
+            return new CompromisedPasswordDecision(false);
+        }
+        return new CompromisedPasswordDecision(contains(sha1(password)));
+    }
+
+    public long size() {
+        return recordCount;
+    }
+
+    boolean contains(byte[] hash) {
+        long low = 0;
+        long high = recordCount - 1;
+        while (low <= high) {
+            long middle = (low + high) >>> 1;
+            int comparison = compareRecord(middle, hash);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Compares the record with the first recordLength bytes of the hash, as unsigned bytes, without copying the record
+    private int compareRecord(long record, byte[] hash) {
+        MappedByteBuffer segment = segments[(int) (record / recordsPerSegment)];
+        int position = (int) ((record % recordsPerSegment) * recordLength);
+        for (int i = 0; i < recordLength; i++) {
+            int difference = Byte.toUnsignedInt(segment.get(position + i)) - Byte.toUnsignedInt(hash[i]);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return 0;
+    }
+
+    static byte[] sha1(String password) {
+        try {
+            return MessageDigest.getInstance("SHA-1").digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
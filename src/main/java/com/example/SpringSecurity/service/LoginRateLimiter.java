@@ -0,0 +1,165 @@
+package com.example.SpringSecurity.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Component
+public class LoginRateLimiter {
+
+    // Limits password checks per username and client IP pair and per client IP before they reach the AuthenticationManager,
+    // so credential stuffing cannot make the server run bcrypt without limit.
+    // The username bucket is keyed on the pair, not on the username alone: otherwise anybody could lock any user out
+    // by sending a few wrong passwords for their username. Failures from one address only lock that address out.
+    // Each key has a token bucket, stored as one long: the "theoretical arrival time" of the generic cell rate algorithm
+    // (GCRA). A login attempt moves it forward by one interval (1 minute / per-minute) and is rejected when it would run
+    // more than burst intervals ahead of now. A successful login gives the interval back, so clients that send correct
+    // HTTP Basic credentials on every call are only limited in how many attempts they have in flight at once.
+    // A failed login moves it forward by failure-cost more intervals, so wrong passwords quickly lock the username from that
+    // IP (and the IP itself) out, also for the correct password, until the bucket refills. Each update is a single CAS, no lock is taken.
+    // Memory is bounded: the buckets live in a fixed table of table-size slots per key type, indexed by the key's hash.
+    // Two keys that share a slot share a bucket. That can only make the limit stricter for them, never looser.
+
+    private static final long EMPTY = 0L;
+
+    private final boolean enabled;
+    private final Buckets usernameBuckets;
+    private final Buckets ipBuckets;
+    private final long failureCost;
+    private final long origin = System.nanoTime();
+
+    public LoginRateLimiter(@Value("${security.login-rate-limit.enabled:true}") boolean enabled,
+                            @Value("${security.login-rate-limit.username.per-minute:10}") int usernamePerMinute,
+                            @Value("${security.login-rate-limit.username.burst:5}") int usernameBurst,
+                            @Value("${security.login-rate-limit.ip.per-minute:60}") int ipPerMinute,
+                            @Value("${security.login-rate-limit.ip.burst:20}") int ipBurst,
+                            @Value("${security.login-rate-limit.failure-cost:2}") int failureCost,
+                            @Value("${security.login-rate-limit.table-size:65536}") int tableSize,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.usernameBuckets = new Buckets(tableSize, usernamePerMinute, usernameBurst,
+                Counter.builder("security.login.rate-limit.rejections").tag("key", "username").register(meterRegistry));
+        this.ipBuckets = new Buckets(tableSize, ipPerMinute, ipBurst,
+                Counter.builder("security.login.rate-limit.rejections").tag("key", "ip").register(meterRegistry));
+        this.failureCost = failureCost;
+    }
+
+    // 0 if the attempt may go on, otherwise the number of seconds the client should wait (for Retry-After)
+    public long tryAcquire(String username, String ip) {
+        if (!enabled) {
+            return 0;
+        }
+        long now = now();
+        long waitNanos = ip != null ? ipBuckets.tryAcquire(ip, now) : 0;
+        if (waitNanos == 0 && username != null) {
+            waitNanos = usernameBuckets.tryAcquire(usernameKey(username, ip), now);
+        }
+        return waitNanos == 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+    }
+
+    // Called for every successful login (AuthenticationEvents)
+    public void recordSuccess(String username, String ip) {
+        if (!enabled) {
+            return;
+        }
+        if (ip != null) {
+            ipBuckets.refund(ip);
+        }
+        if (username != null) {
+            usernameBuckets.refund(usernameKey(username, ip));
+        }
+    }
+
+    // Called for every failed login (AuthenticationEvents)
+    public void recordFailure(String username, String ip) {
+        if (!enabled) {
+            return;
+        }
+        long now = now();
+        if (ip != null) {
+            ipBuckets.penalize(ip, now, failureCost);
+        }
+        if (username != null) {
+            usernameBuckets.penalize(usernameKey(username, ip), now, failureCost);
+        }
+    }
+
+    // A line break cannot be part of an IP address, so two different pairs never produce the same key
+    private static String usernameKey(String username, String ip) {
+        return ip == null ? username : username + '\n' + ip;
+    }
+
+    // Never 0, because 0 marks an unused slot
+    private long now() {
+        return System.nanoTime() - origin + 1;
+    }
+
+    private static final class Buckets {
+
+        private final AtomicLongArray arrivalTimes;
+        private final int mask;
+        private final long interval;
+        private final long tolerance;
+        private final Counter rejections;
+
+        private Buckets(int tableSize, int perMinute, int burst, Counter rejections) {
+            int size = Integer.highestOneBit(Math.max(2, tableSize - 1)) << 1;
+            this.arrivalTimes = new AtomicLongArray(size);
+            this.mask = size - 1;
+            this.interval = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+            this.tolerance = interval * Math.max(1, burst);
+            this.rejections = rejections;
+        }
+
+        private long tryAcquire(String key, long now) {
+            int slot = slot(key);
+            while (true) {
+                long current = arrivalTimes.get(slot);
+                long next = Math.max(current == EMPTY ? now : current, now) + interval;
+                long ahead = next - now;
+                if (ahead > tolerance) {
+                    rejections.increment();
+                    return ahead - tolerance;
+                }
+                if (arrivalTimes.compareAndSet(slot, current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        private void penalize(String key, long now, long cost) {
+            int slot = slot(key);
+            while (true) {
+                long current = arrivalTimes.get(slot);
+                long next = Math.max(current == EMPTY ? now : current, now) + cost * interval;
+                if (arrivalTimes.compareAndSet(slot, current, next)) {
+                    return;
+                }
+            }
+        }
+
+        private void refund(String key) {
+            int slot = slot(key);
+            while (true) {
+                long current = arrivalTimes.get(slot);
+                if (current == EMPTY) {
+                    return;
+                }
+                if (arrivalTimes.compareAndSet(slot, current, Math.max(1, current - interval))) {
+                    return;
+                }
+            }
+        }
+
+        private int slot(String key) {
+            int hash = key.hashCode() * 0x9E3779B9;
+            return (hash ^ (hash >>> 16)) & mask;
+        }
+
+    }
+
+}
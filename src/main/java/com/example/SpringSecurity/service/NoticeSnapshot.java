@@ -0,0 +1,121 @@
+package com.example.SpringSecurity.service;
+
+import com.example.SpringSecurity.model.Notice;
+import com.example.SpringSecurity.repository.NoticeRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Component
+public class NoticeSnapshot {
+
+    // /notices is the busiest public endpoint, but the active notices change about once a day.
+    // Instead of running findAllActiveNotices and serializing the entities with Jackson on every call, the active notices
+    // are kept here as ready-made JSON bytes together with a strong ETag (SHA-256 of the bytes).
+    // - notices.refresh-interval reloads the snapshot, that is how notices become active or inactive when the date changes;
+    // - any insert, update or delete of a notice through JPA drops the snapshot (NoticeSnapshotInvalidator)
+    //   and the next request loads the new one;
+    // - notices changed with SQL outside the application show up after the next scheduled refresh, or at once with
+    //   POST /admin/notices/refresh.
+
+    public record Snapshot(byte[] json, String etag) {
+    }
+
+    private final NoticeRepository noticeRepository;
+    private final ObjectMapper objectMapper;
+    private volatile Snapshot snapshot;
+    // Incremented by every invalidate(). A load that read the rows before an invalidation must not publish its result:
+    // it may hold the notices of before the change, and nothing would drop it again.
+    private final AtomicLong generation = new AtomicLong();
+
+    public NoticeSnapshot(NoticeRepository noticeRepository, ObjectMapper objectMapper) {
+        this.noticeRepository = noticeRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    public Snapshot get() {
+        Snapshot current = snapshot;
+        return current != null ? current : loadIfMissing();
+    }
+
+    @Scheduled(fixedDelayString = "${notices.refresh-interval:PT1M}")
+    public void refresh() {
+        try {
+            synchronized (this) {
+                load();
+            }
+        } catch (RuntimeException ex) {
+            // The old snapshot keeps being served, the next refresh tries again
+            log.error("Refreshing the notice snapshot failed", ex);
+        }
+    }
+
+    // Only one thread queries the database when the snapshot was dropped. The others wait for the lock and
+    // then find the snapshot it published, so they do not query again.
+    private synchronized Snapshot loadIfMissing() {
+        Snapshot current = snapshot;
+        return current != null ? current : load();
+    }
+
+    // Called with the lock held
+    private Snapshot load() {
+        long startedAt = generation.get();
+        List<Notice> notices = noticeRepository.findAllActiveNotices();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(notices);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        Snapshot current = snapshot;
+        Snapshot loaded = current != null && MessageDigest.isEqual(current.json(), json) ? current : new Snapshot(json, etag(json));
+        // If a notice changed while the rows were read, the result is only used for this request; the next one loads again.
+        // Published first and checked afterwards: an invalidate() that ran in between is then always seen here.
+        snapshot = loaded;
+        if (generation.get() != startedAt) {
+            snapshot = null;
+        }
+        return loaded;
+    }
+
+    private static String etag(byte[] json) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public void invalidate() {
+        drop();
+        // A request between the flush and the commit could load the old rows again, so the snapshot is dropped once more after commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    drop();
+                }
+            });
+        }
+    }
+
+    // The generation is incremented before the snapshot is cleared, so a load that is still running cannot publish afterwards
+    private void drop() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+}
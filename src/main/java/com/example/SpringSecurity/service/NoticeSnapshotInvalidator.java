@@ -0,0 +1,25 @@
+package com.example.SpringSecurity.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+// JPA entity listener of Notice: whatever code inserts, updates or deletes a notice, /notices serves the new notices
+// from the next request on. The snapshot is looked up lazily for the same reason as in UserCacheInvalidator.
+@Component
+@RequiredArgsConstructor
+public class NoticeSnapshotInvalidator {
+
+    private final ObjectProvider<NoticeSnapshot> noticeSnapshot;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void noticeChanged(Object notice) {
+        noticeSnapshot.ifAvailable(NoticeSnapshot::invalidate);
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.example.SpringSecurity.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+@Slf4j
+@Component
+public class PasswordEncoderTuner {
+
+    // Builds the DelegatingPasswordEncoder used by both security configs.
+    // - New hashes use security.password-hashing.algorithm (bcrypt or argon2) with the configured cost.
+    // - Hashes with any other id ({noop}, {pbkdf2}, ...) still match through the default Spring Security encoders.
+    // - upgradeEncoding is true for a hash with another id or a lower cost, and the prod AuthenticationProvider then
+    //   stores a new hash after a successful login (UserDetailsPasswordService), so old hashes disappear over time.
+    // Calibration (security.password-hashing.calibrate=true) measures the cost levels on this host at startup and keeps the
+    // strongest one whose hash still takes less than target-latency. The configured cost is the lower limit.
+
+    public static final String BCRYPT = "bcrypt";
+    public static final String ARGON2 = "argon2";
+
+    private static final int MAX_BCRYPT_STRENGTH = 16;
+    private static final int MAX_ARGON2_MEMORY_KIB = 256 * 1024;
+    private static final int ARGON2_SALT_LENGTH = 16;
+    private static final int ARGON2_HASH_LENGTH = 32;
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+
+    private final String algorithm;
+    private final int bcryptStrength;
+    private final int argon2MemoryKib;
+    private final int argon2Iterations;
+    private final int argon2Parallelism;
+    private final boolean calibrate;
+    private final Duration targetLatency;
+
+    public PasswordEncoderTuner(@Value("${security.password-hashing.algorithm:bcrypt}") String algorithm,
+                                @Value("${security.password-hashing.bcrypt.strength:10}") int bcryptStrength,
+                                @Value("${security.password-hashing.argon2.memory-kib:19456}") int argon2MemoryKib,
+                                @Value("${security.password-hashing.argon2.iterations:2}") int argon2Iterations,
+                                @Value("${security.password-hashing.argon2.parallelism:1}") int argon2Parallelism,
+                                @Value("${security.password-hashing.calibrate:false}") boolean calibrate,
+                                @Value("${security.password-hashing.target-latency:PT0.25S}") Duration targetLatency) {
+        if (!BCRYPT.equals(algorithm) && !ARGON2.equals(algorithm)) {
+            throw new IllegalArgumentException("Unsupported security.password-hashing.algorithm: " + algorithm);
+        }
+        this.algorithm = algorithm;
+        this.bcryptStrength = bcryptStrength;
+        this.argon2MemoryKib = argon2MemoryKib;
+        this.argon2Iterations = argon2Iterations;
+        this.argon2Parallelism = argon2Parallelism;
+        this.calibrate = calibrate;
+        this.targetLatency = targetLatency;
+    }
+
+    public PasswordEncoder createPasswordEncoder() {
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        if (BCRYPT.equals(algorithm)) {
+            int strength = calibrate ? calibrate("bcrypt strength", bcryptStrength, MAX_BCRYPT_STRENGTH, 1, this::bcrypt)
+                    : bcryptStrength;
+            encoders.put(BCRYPT, bcrypt(strength));
+            log.info("Password hashing: bcrypt, strength {}", strength);
+        } else {
+            int memoryKib = calibrate ? calibrate("argon2 memory (KiB)", argon2MemoryKib, MAX_ARGON2_MEMORY_KIB, 2, this::argon2)
+                    : argon2MemoryKib;
+            encoders.put(ARGON2, argon2(memoryKib));
+            // Existing bcrypt hashes keep the default cost check of BCryptPasswordEncoder, they are upgraded because of the id
+            encoders.put(BCRYPT, new BCryptPasswordEncoder());
+            log.info("Password hashing: argon2, memory {} KiB, iterations {}, parallelism {}", memoryKib,
+                    argon2Iterations, argon2Parallelism);
+        }
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        // {noop}, {pbkdf2}, {scrypt}, ... are handed to the encoders of PasswordEncoderFactories
+        passwordEncoder.setDefaultPasswordEncoderForMatches(PasswordEncoderFactories.createDelegatingPasswordEncoder());
+        return passwordEncoder;
+    }
+
+    private PasswordEncoder bcrypt(int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    private PasswordEncoder argon2(int memoryKib) {
+        return new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, argon2Parallelism, memoryKib,
+                argon2Iterations);
+    }
+
+    // Raises the cost from the configured value (step: +1 for bcrypt's log2 rounds, x2 for argon2 memory) while
+    // one hash stays within the target latency. The median of three runs is used, after a warm-up run.
+    private int calibrate(String name, int minimum, int maximum, int step, IntFunction<PasswordEncoder> encoderForCost) {
+        long budgetNanos = targetLatency.toNanos();
+        int chosen = minimum;
+        int cost = minimum;
+        while (cost <= maximum) {
+            long nanos = measure(encoderForCost.apply(cost));
+            log.info("Password hashing calibration: {} {} takes {} ms", name, cost, nanos / 1_000_000);
+            if (nanos > budgetNanos) {
+                if (cost == minimum) {
+                    log.warn("Password hashing calibration: the configured {} {} already exceeds the target latency of {} ms",
+                            name, minimum, targetLatency.toMillis());
+                }
+                break;
+            }
+            chosen = cost;
+            cost = step == 1 ? cost + 1 : cost * step;
+        }
+        return chosen;
+    }
+
+    private long measure(PasswordEncoder encoder) {
+        encoder.encode(CALIBRATION_PASSWORD);
+        long[] samples = new long[3];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[1];
+    }
+
+}
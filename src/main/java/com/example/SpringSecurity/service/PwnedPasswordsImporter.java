@@ -0,0 +1,90 @@
+package com.example.SpringSecurity.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+@Slf4j
+public final class PwnedPasswordsImporter {
+
+    // Converts the Have I Been Pwned "SHA-1, ordered by hash" dump (lines like 000000005AD76BD555C1D6D771DE417A4B87E4B4:10,
+    // for example from the PwnedPasswordsDownloader tool) into the file read by LocalCompromisedPasswordChecker.
+    // Only the first record-length bytes of each hash are kept, 10 by default, which makes the file about half the size
+    // of the raw hashes and a third of the text dump. Hashes seen fewer than min-count times can be left out.
+    // Usage:
+    //   mvn -q compile exec:java -Dexec.mainClass=com.example.SpringSecurity.service.PwnedPasswordsImporter \
+    //       -Dexec.args="pwnedpasswords.txt pwned-passwords.bin [record-length] [min-count]"
+
+    private PwnedPasswordsImporter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            log.error("Usage: PwnedPasswordsImporter <dump.txt> <corpus.bin> [record-length 4..20, default 10] [min-count, default 1]");
+            System.exit(1);
+        }
+        int recordLength = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        long minCount = args.length > 3 ? Long.parseLong(args[3]) : 1;
+        long records = importDump(Path.of(args[0]), Path.of(args[1]), recordLength, minCount);
+        log.info("Wrote {} hashes to {}", records, args[1]);
+    }
+
+    public static long importDump(Path dump, Path corpus, int recordLength, long minCount) throws IOException {
+        if (recordLength < LocalCompromisedPasswordChecker.MIN_RECORD_LENGTH
+                || recordLength > LocalCompromisedPasswordChecker.MAX_RECORD_LENGTH) {
+            throw new IllegalArgumentException("record length must be between 4 and 20 bytes");
+        }
+        HexFormat hex = HexFormat.of();
+        long records = 0;
+        byte[] previous = null;
+        try (BufferedReader reader = Files.newBufferedReader(dump, StandardCharsets.US_ASCII);
+             OutputStream file = Files.newOutputStream(corpus);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 20))) {
+            out.write(LocalCompromisedPasswordChecker.MAGIC);
+            out.writeInt(recordLength);
+            out.writeLong(0); // the record count is written at the end
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                int separator = line.indexOf(':');
+                String hash = separator < 0 ? line.trim() : line.substring(0, separator);
+                long count = separator < 0 ? 1 : Long.parseLong(line.substring(separator + 1).trim());
+                if (count < minCount) {
+                    continue;
+                }
+                byte[] record = Arrays.copyOf(hex.parseHex(hash), recordLength);
+                if (previous != null) {
+                    int comparison = Arrays.compareUnsigned(previous, record);
+                    if (comparison > 0) {
+                        throw new IOException("The dump is not ordered by hash near line " + line
+                                + ", download the \"ordered by hash\" version");
+                    }
+                    if (comparison == 0) {
+                        continue; // two hashes with the same prefix, one record is enough
+                    }
+                }
+                out.write(record);
+                previous = record;
+                records++;
+            }
+        }
+        try (RandomAccessFile file = new RandomAccessFile(corpus.toFile(), "rw")) {
+            file.seek(LocalCompromisedPasswordChecker.MAGIC.length + Integer.BYTES);
+            file.writeLong(records);
+        }
+        return records;
+    }
+
+}
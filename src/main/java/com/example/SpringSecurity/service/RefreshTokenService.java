@@ -0,0 +1,137 @@
+package com.example.SpringSecurity.service;
+
+import com.example.SpringSecurity.model.RefreshToken;
+import com.example.SpringSecurity.repository.RefreshTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@Service
+public class RefreshTokenService {
+
+    // Access tokens live only a few minutes. When one expires, the client sends its refresh token to /apiRefresh
+    // instead of logging in again, so a refresh costs one indexed lookup instead of a bcrypt PasswordEncoder.matches.
+    // Refresh tokens are single-use: every refresh returns a new refresh token of the same family and marks the old one as used.
+    // If a used token is presented again, either the client or an attacker holds a copy of it. Because we cannot tell which,
+    // the whole family and all access tokens of the user are revoked and the user has to log in again.
+    // Every login starts a family, so only the newest max-families-per-user families of a user are kept active (one per device);
+    // older ones are revoked and deleted with the expired tokens.
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JWTTokenService jwtTokenService;
+    private final AuthorityRegistry authorityRegistry;
+    private final TokenRevocationService tokenRevocationService;
+    private final Duration refreshTokenLifetime;
+    private final int maxFamiliesPerUser;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository, JWTTokenService jwtTokenService,
+                               AuthorityRegistry authorityRegistry, TokenRevocationService tokenRevocationService,
+                               @Value("${jwt.refresh-token.expiration:P14D}") Duration refreshTokenLifetime,
+                               @Value("${jwt.refresh-token.max-families-per-user:5}") int maxFamiliesPerUser) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtTokenService = jwtTokenService;
+        this.authorityRegistry = authorityRegistry;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenLifetime = refreshTokenLifetime;
+        this.maxFamiliesPerUser = maxFamiliesPerUser;
+    }
+
+    // Starts a new family after a successful login
+    @Transactional
+    public String issue(Authentication authentication) {
+        String token = create(UUID.randomUUID().toString(), authentication.getName(),
+                authorityRegistry.encode(authentication.getAuthorities()));
+        List<String> families = refreshTokenRepository.findActiveFamilies(authentication.getName());
+        if (families.size() > maxFamiliesPerUser) {
+            refreshTokenRepository.revokeFamilies(families.subList(maxFamiliesPerUser, families.size()));
+        }
+        return token;
+    }
+
+    // Returns the new access token and the new refresh token
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public TokenPair rotate(String refreshToken) {
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> new BadCredentialsException("Invalid refresh token"));
+        if (stored.isRevoked() || stored.getExpiresAt().getTime() <= System.currentTimeMillis()) {
+            throw new BadCredentialsException("Refresh token expired or revoked");
+        }
+        if (stored.isUsed() || refreshTokenRepository.markUsed(stored.getId()) == 0) {
+            log.error("Refresh token reuse detected for the user : {}", stored.getUsername());
+            refreshTokenRepository.revokeFamily(stored.getFamilyId());
+            tokenRevocationService.revokeAllForUser(stored.getUsername());
+            throw new BadCredentialsException("Refresh token was already used");
+        }
+        // Authorities come from the login that started the family; a role change takes effect at the next login
+        JWTAuthenticationToken authentication = new JWTAuthenticationToken(stored.getUsername(),
+                authorityRegistry.resolve(stored.getAuthorities()), null, 0, 0);
+        String jwt = jwtTokenService.generateToken(authentication);
+        return new TokenPair(jwt, create(stored.getFamilyId(), stored.getUsername(), stored.getAuthorities()));
+    }
+
+    // Logout: the family of the presented refresh token cannot be refreshed anymore. Unknown tokens are ignored.
+    @Transactional
+    public void revokeFamily(String refreshToken) {
+        refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .ifPresent(stored -> refreshTokenRepository.revokeFamily(stored.getFamilyId()));
+    }
+
+    // Every access token and every refresh token family of the user stops working, e.g. after a stolen device was reported
+    @Transactional
+    public void revokeAllForUser(String username) {
+        refreshTokenRepository.revokeAllForUsername(username);
+        tokenRevocationService.revokeAllForUser(username);
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.purge-interval:PT1H}")
+    @Transactional
+    public void purgeExpired() {
+        refreshTokenRepository.deleteExpiredOrRevoked(new Timestamp(System.currentTimeMillis()));
+    }
+
+    private String create(String familyId, String username, String authorities) {
+        byte[] randomBytes = new byte[32];
+        secureRandom.nextBytes(randomBytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(randomBytes);
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(token));
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setUsername(username);
+        refreshToken.setAuthorities(authorities);
+        refreshToken.setExpiresAt(new Timestamp(System.currentTimeMillis() + refreshTokenLifetime.toMillis()));
+        refreshToken.setCreateDt(new Date(System.currentTimeMillis()));
+        refreshTokenRepository.save(refreshToken);
+        return token;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(messageDigest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+    }
+
+    public record TokenPair(String jwtToken, String refreshToken) {
+    }
+
+}
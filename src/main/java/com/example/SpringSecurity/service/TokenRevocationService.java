@@ -0,0 +1,142 @@
+package com.example.SpringSecurity.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Service
+public class TokenRevocationService {
+
+    // A JWT stays valid until it expires, so a stolen token could be used for hours. This service remembers
+    // revoked tokens (by their jti claim) and users whose tokens were all revoked (logout everywhere, admin action).
+    // Almost every token that is checked is not revoked, so the maps are guarded by a Bloom filter:
+    // a Bloom filter answers "definitely not revoked" with a few bit probes and only a possible match is looked up in the map.
+    // A Bloom filter cannot remove entries, so expired entries are purged on a schedule and the filter is rebuilt from the maps.
+
+    private static final int HASH_PROBES = 4;
+    private static final String TOKEN_PREFIX = "j:";
+    private static final String USER_PREFIX = "u:";
+
+    private final int bloomBits;
+    private final long accessTokenLifetimeMillis;
+    private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>(); // jti -> expiration of the token
+    private final Map<String, Long> revokedUsers = new ConcurrentHashMap<>(); // username -> tokens issued up to this millisecond are revoked
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile AtomicLongArray bloomFilter;
+
+    public TokenRevocationService(@Value("${jwt.revocation.bloom-bits:1048576}") int bloomBits,
+                                  @Value("${jwt.access-token.expiration:PT15M}") Duration accessTokenLifetime) {
+        this.accessTokenLifetimeMillis = accessTokenLifetime.toMillis();
+        this.bloomBits = Integer.highestOneBit(Math.max(bloomBits, 64)); // power of two, so a probe is a mask instead of a modulo
+        this.bloomFilter = new AtomicLongArray(this.bloomBits / 64);
+    }
+
+    public boolean isRevoked(JWTAuthenticationToken authentication) {
+        String tokenId = authentication.getTokenId();
+        if (tokenId != null && mightContain(TOKEN_PREFIX + tokenId) && revokedTokens.containsKey(tokenId)) {
+            return true;
+        }
+        if (mightContain(USER_PREFIX + authentication.getName())) {
+            Long revokedBefore = revokedUsers.get(authentication.getName());
+            return revokedBefore != null && authentication.getIssuedAt() <= revokedBefore;
+        }
+        return false;
+    }
+
+    public void revoke(JWTAuthenticationToken authentication) {
+        if (authentication.getTokenId() != null) {
+            revokedTokens.put(authentication.getTokenId(), authentication.getExpiresAt());
+            add(TOKEN_PREFIX + authentication.getTokenId());
+        } else {
+            // Tokens issued before jti was added can only be revoked together with all other tokens of the user
+            revokeAllForUser(authentication.getName());
+        }
+    }
+
+    // Revokes every token of the user issued up to and including the current millisecond (the issue time comes from
+    // the "iam" claim, see JWTTokenService). The method returns only after the clock has moved on, so a token issued
+    // after it returns, e.g. the new login right after a password change, is never caught by the revocation.
+    // Old tokens without "iam" only have whole seconds and are revoked for the whole second of the revocation.
+    public void revokeAllForUser(String username) {
+        long revokedBefore = System.currentTimeMillis();
+        revokedUsers.merge(username, revokedBefore, Math::max);
+        add(USER_PREFIX + username);
+        while (System.currentTimeMillis() <= revokedBefore) {
+            Thread.onSpinWait();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.purge-interval:PT5M}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        // After the maximum token lifetime, no token issued before the revocation can still be valid
+        revokedUsers.values().removeIf(revokedBefore -> revokedBefore + accessTokenLifetimeMillis <= now);
+        rebuildLock.lock();
+        try {
+            AtomicLongArray rebuilt = new AtomicLongArray(bloomBits / 64);
+            revokedTokens.keySet().forEach(tokenId -> add(rebuilt, TOKEN_PREFIX + tokenId));
+            revokedUsers.keySet().forEach(username -> add(rebuilt, USER_PREFIX + username));
+            bloomFilter = rebuilt;
+            // Revocations that happened while the new filter was filled were written to the old one, so add them again
+            revokedTokens.keySet().forEach(tokenId -> add(rebuilt, TOKEN_PREFIX + tokenId));
+            revokedUsers.keySet().forEach(username -> add(rebuilt, USER_PREFIX + username));
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void add(String value) {
+        add(bloomFilter, value);
+    }
+
+    private void add(AtomicLongArray filter, String value) {
+        long hash = hash(value);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASH_PROBES; i++) {
+            int bit = (hash1 + i * hash2) & (bloomBits - 1);
+            long mask = 1L << bit;
+            int index = bit >>> 6;
+            long word;
+            do {
+                word = filter.get(index);
+            } while ((word & mask) == 0 && !filter.compareAndSet(index, word, word | mask));
+        }
+    }
+
+    private boolean mightContain(String value) {
+        AtomicLongArray filter = bloomFilter;
+        long hash = hash(value);
+        int hash1 = (int) hash;
+        int hash2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASH_PROBES; i++) {
+            int bit = (hash1 + i * hash2) & (bloomBits - 1);
+            if ((filter.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 64-bit FNV-1a followed by a final mix; the two halves are used as the two hashes of double hashing
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.example.SpringSecurity.service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.Base64;
+
+// Continuation token of /myBalance: the position of the last transaction of a page in the
+// (transaction_dt desc, transaction_id desc) order, plus the customer it belongs to.
+// The client gets it base64url encoded and sends it back unchanged; it must not rely on its content.
+public record TransactionCursor(long customerId, Date transactionDt, String transactionId) {
+
+    private static final char SEPARATOR = '|';
+
+    // account_transactions.transaction_dt is NOT NULL; a cursor without a date or id could never be sent back
+    public TransactionCursor {
+        if (transactionDt == null || transactionId == null) {
+            throw new IllegalArgumentException("A cursor needs the transaction date and id");
+        }
+    }
+
+    public String encode() {
+        String value = customerId + "" + SEPARATOR + transactionDt + SEPARATOR + transactionId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // IllegalArgumentException for anything that was not produced by encode()
+    public static TransactionCursor decode(String token) {
+        String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        int first = value.indexOf(SEPARATOR);
+        int second = value.indexOf(SEPARATOR, first + 1);
+        if (first < 0 || second < 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new TransactionCursor(Long.parseLong(value.substring(0, first)),
+                Date.valueOf(value.substring(first + 1, second)), value.substring(second + 1));
+    }
+
+}
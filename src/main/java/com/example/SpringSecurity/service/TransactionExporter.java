@@ -0,0 +1,189 @@
+package com.example.SpringSecurity.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+@Service
+public class TransactionExporter {
+
+    // Writes the whole transaction history of a customer straight to an OutputStream, in constant memory.
+    // The rows are read with plain JDBC (no JPA), so no entity is created and nothing piles up in a persistence context:
+    // every row is written and forgotten before the next one is read.
+    // The statement is forward-only and read-only with a fetch size, so the driver keeps only fetch-size rows in memory.
+    // MySQL Connector/J ignores a positive fetch size and reads the complete result into memory. It only streams when
+    // the fetch size is Integer.MIN_VALUE: the rows then come one by one from the open result set. That value is set
+    // on this statement only, because other drivers (H2 in the tests) reject a negative fetch size.
+    // useCursorFetch=true on the URL would also work, but it turns on server-side prepared statements for every query.
+    // While a MySQL result is streaming, the connection cannot run other statements; the export runs none.
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String SQL = "select transaction_id, account_number, transaction_dt, transaction_summary, " +
+            "transaction_type, transaction_amt, closing_balance from account_transactions " +
+            "where customer_id = ? and transaction_dt >= ? and transaction_dt <= ? " +
+            "order by transaction_dt, transaction_id";
+
+    private static final String CSV_HEADER = "transactionId,accountNumber,transactionDt,transactionSummary," +
+            "transactionType,transactionAmt,closingBalance\n";
+
+    // Used when the request has no from / to, the column is a DATE so these cover every row
+    private static final Date MIN_DATE = Date.valueOf(LocalDate.of(1000, 1, 1));
+    private static final Date MAX_DATE = Date.valueOf(LocalDate.of(9999, 12, 31));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public TransactionExporter(DataSource dataSource, ObjectMapper objectMapper,
+                               @Value("${export.transactions.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    public long export(long customerId, LocalDate from, LocalDate to, Format format, OutputStream out) throws IOException {
+        Date fromDate = from == null ? MIN_DATE : Date.valueOf(from);
+        Date toDate = to == null ? MAX_DATE : Date.valueOf(to);
+        RowWriter rowWriter = format == Format.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(out);
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(isMySql(con) ? Integer.MIN_VALUE : fetchSize);
+                ps.setLong(1, customerId);
+                ps.setDate(2, fromDate);
+                ps.setDate(3, toDate);
+                return ps;
+            }, rowWriter);
+        } catch (UncheckedIOException ex) {
+            // The client went away in the middle of the export, the query has already been closed by JdbcTemplate
+            throw ex.getCause();
+        }
+        rowWriter.finish();
+        return rowWriter.rows;
+    }
+
+    private static boolean isMySql(Connection con) throws SQLException {
+        return "MySQL".equalsIgnoreCase(con.getMetaData().getDatabaseProductName());
+    }
+
+    private abstract static class RowWriter implements RowCallbackHandler {
+
+        long rows;
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            try {
+                write(rs);
+                rows++;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        abstract void write(ResultSet rs) throws SQLException, IOException;
+
+        abstract void finish() throws IOException;
+    }
+
+    private final class NdjsonRowWriter extends RowWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(OutputStream out) throws IOException {
+            // The generator buffers internally and writes to the response stream when its buffer is full.
+            // Without a root value separator, because every line ends with the '\n' written below
+            // (the default separator " " would start every line after the first with a space).
+            this.generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeStringField("transactionId", rs.getString(1));
+            generator.writeNumberField("accountNumber", rs.getLong(2));
+            Date transactionDt = rs.getDate(3);
+            generator.writeStringField("transactionDt", transactionDt == null ? null : transactionDt.toString());
+            generator.writeStringField("transactionSummary", rs.getString(4));
+            generator.writeStringField("transactionType", rs.getString(5));
+            generator.writeNumberField("transactionAmt", rs.getInt(6));
+            generator.writeNumberField("closingBalance", rs.getInt(7));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvRowWriter extends RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(CSV_HEADER);
+        }
+
+        @Override
+        void write(ResultSet rs) throws SQLException, IOException {
+            writeField(rs.getString(1));
+            writer.write(',');
+            writer.write(Long.toString(rs.getLong(2)));
+            writer.write(',');
+            Date transactionDt = rs.getDate(3);
+            writeField(transactionDt == null ? null : transactionDt.toString());
+            writer.write(',');
+            writeField(rs.getString(4));
+            writer.write(',');
+            writeField(rs.getString(5));
+            writer.write(',');
+            writer.write(Integer.toString(rs.getInt(6)));
+            writer.write(',');
+            writer.write(Integer.toString(rs.getInt(7)));
+            writer.write('\n');
+        }
+
+        // RFC 4180: a field with a comma, quote or line break is quoted and its quotes are doubled
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+}
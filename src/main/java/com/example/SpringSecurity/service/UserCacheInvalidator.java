@@ -0,0 +1,57 @@
+package com.example.SpringSecurity.service;
+
+import com.example.SpringSecurity.model.Authority;
+import com.example.SpringSecurity.model.Customer;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.stereotype.Component;
+
+// JPA entity listener of Customer and Authority. Spring Boot lets Hibernate create entity listeners as Spring beans,
+// so it can use the UserCache. Whatever code changes a customer or one of its authorities, only that user is evicted,
+// from the UserDetails cache and from the credential verification cache.
+// The caches are looked up lazily: Hibernate creates this listener while the EntityManagerFactory is built, and JPA-only
+// contexts (@DataJpaTest) have no caches at all.
+@Component
+@RequiredArgsConstructor
+public class UserCacheInvalidator {
+
+    private final ObjectProvider<UserCache> userCache;
+    private final ObjectProvider<CredentialVerificationCache> credentialVerificationCache;
+
+    // The listener only sees the new state of a row, so the email it was loaded with is kept to evict the old username too
+    @PostLoad
+    public void entityLoaded(Object entity) {
+        if (entity instanceof Customer customer) {
+            customer.setLoadedEmail(customer.getEmail());
+        }
+    }
+
+    // JPA allows only one method per lifecycle event in a listener class, so both entity types arrive here
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void entityChanged(Object entity) {
+        Customer customer = entity instanceof Authority authority ? authority.getCustomer() : (Customer) entity;
+        if (customer == null) {
+            return;
+        }
+        evict(customer.getEmail());
+        if (customer.getLoadedEmail() != null && !customer.getLoadedEmail().equals(customer.getEmail())) {
+            evict(customer.getLoadedEmail());
+        }
+        customer.setLoadedEmail(customer.getEmail());
+    }
+
+    private void evict(String email) {
+        if (email != null) {
+            userCache.ifAvailable(cache -> cache.removeUserFromCache(email));
+            credentialVerificationCache.ifAvailable(cache -> cache.evict(email));
+        }
+    }
+
+}
@@ -51,7 +51,9 @@ CREATE TABLE `account_transactions` (
                                         `closing_balance` int NOT NULL,
                                         `create_dt` date DEFAULT NULL,
                                         PRIMARY KEY (`transaction_id`),
-                                        KEY `customer_id` (`customer_id`),
+                                        # Serves the keyset pagination of /myBalance: equality on customer_id, then a range seek in
+                                        # (transaction_dt, transaction_id) order. It also backs the customer_id foreign key.
+                                        KEY `customer_txn_page` (`customer_id`, `transaction_dt`, `transaction_id`),
                                         KEY `account_number` (`account_number`),
                                         CONSTRAINT `accounts_ibfk_2` FOREIGN KEY (`account_number`) REFERENCES `accounts` (`account_number`) ON DELETE CASCADE,
                                         CONSTRAINT `acct_user_ibfk_1` FOREIGN KEY (`customer_id`) REFERENCES `customer` (`customer_id`) ON DELETE CASCADE
@@ -198,4 +200,65 @@ INSERT INTO `authorities` (`customer_id`, `name`)
 VALUES (1, 'ROLE_USER');
 
 INSERT INTO `authorities` (`customer_id`, `name`)
-VALUES (1, 'ROLE_ADMIN');
\ No newline at end of file
+VALUES (1, 'ROLE_ADMIN');
+
+# token_hash is unique and indexed, so a refresh is a single index lookup instead of a bcrypt password check.
+CREATE TABLE `refresh_tokens` (
+  `id` int NOT NULL AUTO_INCREMENT,
+  `token_hash` varchar(64) NOT NULL,
+  `family_id` varchar(36) NOT NULL,
+  `username` varchar(100) NOT NULL,
+  `authorities` varchar(500) NOT NULL,
+  `expires_at` timestamp NOT NULL,
+  `used` boolean NOT NULL DEFAULT false,
+  `revoked` boolean NOT NULL DEFAULT false,
+  `create_dt` date DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `token_hash` (`token_hash`),
+  KEY `family_id` (`family_id`),
+  KEY `expires_at` (`expires_at`)
+);
+
+# Written in batches by the security audit pipeline when audit.sink=jdbc.
+CREATE TABLE `audit_events` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `event_time` timestamp(3) NOT NULL,
+  `event_type` varchar(40) NOT NULL,
+  `principal` varchar(100) DEFAULT NULL,
+  `detail` varchar(500) DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  KEY `event_time` (`event_time`)
+);
+
+# Read model behind /myAccountSummary, one row per customer. It is recomputed by the application after every change
+# of the customer's transactions, cards or loans. Fill or repair it with POST /admin/account-summaries/rebuild.
+CREATE TABLE `customer_account_summary` (
+  `customer_id` int NOT NULL,
+  `closing_balance` int NOT NULL,
+  `last_transaction_dt` date DEFAULT NULL,
+  `card_count` bigint NOT NULL,
+  `cards_total_limit` bigint NOT NULL,
+  `cards_amount_used` bigint NOT NULL,
+  `loan_count` bigint NOT NULL,
+  `loans_total` bigint NOT NULL,
+  `loans_outstanding` bigint NOT NULL,
+  `updated_at` timestamp NOT NULL,
+  PRIMARY KEY (`customer_id`),
+  CONSTRAINT `summary_customer_ibfk_1` FOREIGN KEY (`customer_id`) REFERENCES `customer` (`customer_id`) ON DELETE CASCADE
+);
+
+# Change counters per customer, the ETags of /myAccount, /myCards and /myLoans. The application increments them
+# in the same transaction as every change of the customer's accounts, cards or loans.
+CREATE TABLE `customer_data_version` (
+  `customer_id` int NOT NULL,
+  `accounts_version` bigint NOT NULL,
+  `cards_version` bigint NOT NULL,
+  `loans_version` bigint NOT NULL,
+  PRIMARY KEY (`customer_id`)
+);
+
+# For an existing database, the same index can be added with:
+# ALTER TABLE `account_transactions` ADD KEY `customer_txn_page` (`customer_id`, `transaction_dt`, `transaction_id`), DROP KEY `customer_id`;
+# The keyset pagination needs transaction_dt on every row. If an older schema allowed NULL there, fill it and forbid it first:
+# UPDATE `account_transactions` SET `transaction_dt` = COALESCE(`create_dt`, CURDATE()) WHERE `transaction_dt` IS NULL;
+# ALTER TABLE `account_transactions` MODIFY `transaction_dt` date NOT NULL;
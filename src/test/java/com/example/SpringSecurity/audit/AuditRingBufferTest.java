@@ -0,0 +1,75 @@
+package com.example.SpringSecurity.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditRingBufferTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int EVENTS_PER_PRODUCER = 5_000;
+
+    @Test
+    void manyProducersLoseNoEventsAndKeepTheirOrder() throws Exception {
+        // Much smaller than the number of events, so producers keep running into a full buffer and retry
+        AuditRingBuffer buffer = new AuditRingBuffer(64);
+        List<CompletableFuture<Void>> producers = new ArrayList<>();
+        for (int producer = 0; producer < PRODUCERS; producer++) {
+            String principal = "producer-" + producer;
+            producers.add(CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < EVENTS_PER_PRODUCER; i++) {
+                    AuditEvent event = AuditEvent.of(AuditEventType.AUTHENTICATION_FAILURE, principal, String.valueOf(i));
+                    while (!buffer.offer(event)) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+
+        List<AuditEvent> consumed = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (consumed.size() < PRODUCERS * EVENTS_PER_PRODUCER && System.nanoTime() < deadline) {
+            buffer.drainTo(consumed, 100);
+        }
+        CompletableFuture.allOf(producers.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertThat(consumed).hasSize(PRODUCERS * EVENTS_PER_PRODUCER);
+        // The events of one producer come out in the order they were offered
+        Map<String, Integer> next = new HashMap<>();
+        for (AuditEvent event : consumed) {
+            int expected = next.getOrDefault(event.principal(), 0);
+            assertThat(event.detail()).as(event.principal()).isEqualTo(String.valueOf(expected));
+            next.put(event.principal(), expected + 1);
+        }
+        assertThat(next).hasSize(PRODUCERS).allSatisfy((principal, count) -> assertThat(count).isEqualTo(EVENTS_PER_PRODUCER));
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void fullBufferRejectsUntilTheConsumerMakesRoom() {
+        AuditRingBuffer buffer = new AuditRingBuffer(4);
+        for (int i = 0; i < buffer.capacity(); i++) {
+            assertThat(buffer.offer(event(i))).isTrue();
+        }
+
+        assertThat(buffer.offer(event(99))).isFalse();
+
+        List<AuditEvent> batch = new ArrayList<>();
+        assertThat(buffer.drainTo(batch, 1)).isEqualTo(1);
+        assertThat(buffer.offer(event(4))).isTrue();
+        assertThat(buffer.drainTo(batch, 10)).isEqualTo(4);
+        assertThat(batch).extracting(AuditEvent::detail).containsExactly("0", "1", "2", "3", "4");
+    }
+
+    private static AuditEvent event(int number) {
+        return AuditEvent.of(AuditEventType.AUTHENTICATION_SUCCESS, "happy@example.com", String.valueOf(number));
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.example.SpringSecurity.audit;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SecurityAuditorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void failuresAreKeptWhenEverySuccessIsSampledAway() throws Exception {
+        SecurityAuditor auditor = auditor("file", 1024, 0.0);
+        auditor.start();
+
+        for (int i = 0; i < 100; i++) {
+            if (auditor.sampleSuccess()) {
+                auditor.record(AuditEventType.AUTHENTICATION_SUCCESS, "happy@example.com", null);
+            }
+            auditor.record(AuditEventType.AUTHENTICATION_FAILURE, "happy@example.com", "failure " + i);
+            auditor.record(AuditEventType.AUTHORIZATION_FAILURE, "happy@example.com", "denied " + i);
+        }
+        auditor.stop();
+
+        List<JsonNode> written = readAuditFiles();
+        assertThat(written).hasSize(200)
+                .extracting(event -> event.get("type").asText())
+                .containsOnly("AUTHENTICATION_FAILURE", "AUTHORIZATION_FAILURE");
+        assertThat(counter("written")).isEqualTo(200);
+        assertThat(counter("dropped")).isZero();
+    }
+
+    @Test
+    void eventsThatDoNotFitAreDroppedAndCounted() throws InterruptedException {
+        // The writer thread is not started, so nothing makes room in the buffer
+        SecurityAuditor auditor = auditor("none", 4, 1.0);
+        for (int i = 0; i < 4; i++) {
+            auditor.record(AuditEventType.AUTHENTICATION_SUCCESS, "happy@example.com", null);
+        }
+
+        auditor.record(AuditEventType.AUTHENTICATION_SUCCESS, "happy@example.com", null);
+        // A failure waits failure-backpressure for room before it is dropped
+        auditor.record(AuditEventType.AUTHENTICATION_FAILURE, "happy@example.com", null);
+
+        assertThat(counter("dropped")).isEqualTo(2);
+        assertThat(meterRegistry.get("audit.buffer.size").gauge().value()).isEqualTo(4);
+
+        auditor.start();
+        auditor.stop();
+        assertThat(counter("written")).isEqualTo(4);
+    }
+
+    private SecurityAuditor auditor(String sink, int bufferSize, double successSampleRate) {
+        return new SecurityAuditor(sink, directory.toString(), bufferSize, 16, Duration.ofMillis(10), successSampleRate,
+                Duration.ofMillis(5), null, objectMapper, meterRegistry);
+    }
+
+    private double counter(String result) {
+        return meterRegistry.get("audit.events").tag("result", result).counter().count();
+    }
+
+    private List<JsonNode> readAuditFiles() throws IOException {
+        List<JsonNode> events = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().toList()) {
+                for (String line : Files.readAllLines(file)) {
+                    events.add(objectMapper.readTree(line));
+                }
+            }
+        }
+        return events;
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.example.SpringSecurity.benchmark;
+
+import com.example.SpringSecurity.constants.ApplicationConstants;
+import com.example.SpringSecurity.filter.JWTTokenValidatorFilter;
+import com.example.SpringSecurity.service.AuthorityRegistry;
+import com.example.SpringSecurity.service.JWTKeyRing;
+import com.example.SpringSecurity.service.JWTTokenCache;
+import com.example.SpringSecurity.service.JWTTokenService;
+import com.example.SpringSecurity.service.TokenRevocationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Sign and verify throughput of each supported algorithm. Signing goes through JWTTokenService (the code used by
+// JWTTokenGeneratorFilter and apiLogin), verifying goes through JWTTokenValidatorFilter with the token cache disabled.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTSigningBenchmark {
+
+    @Param({JWTKeyRing.HS256, JWTKeyRing.ES256, JWTKeyRing.EDDSA})
+    public String algorithm;
+
+    private JWTTokenService jwtTokenService;
+    private JWTTokenValidatorFilter validatorFilter;
+    private Authentication authentication;
+    private String jwt;
+
+    @Setup
+    public void setup() {
+        jwtTokenService = new JWTTokenService(JWTKeyRing.generated(algorithm, ApplicationConstants.JWT_SECRET_DEFAULT_VALUE),
+                new AuthorityRegistry(), Duration.ofMinutes(15));
+        validatorFilter = new JWTTokenValidatorFilter(jwtTokenService,
+                new JWTTokenCache(false, 0, new SimpleMeterRegistry()), new TokenRevocationService(1 << 20, Duration.ofMinutes(15)));
+        authentication = new UsernamePasswordAuthenticationToken("happy@example.com", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"));
+        jwt = jwtTokenService.generateToken(authentication);
+    }
+
+    @Benchmark
+    public String sign() {
+        return jwtTokenService.generateToken(authentication);
+    }
+
+    @Benchmark
+    public Authentication verify() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/myAccount");
+        request.addHeader(ApplicationConstants.JWT_HEADER, jwt);
+        validatorFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Authentication result = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(JWTSigningBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.example.SpringSecurity.benchmark;
+
+import com.example.SpringSecurity.constants.ApplicationConstants;
+import com.example.SpringSecurity.service.AuthorityRegistry;
+import com.example.SpringSecurity.service.JWTKeyRing;
+import com.example.SpringSecurity.service.JWTTokenService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Compares the cost of validating one token the old way (derive the key and build a parser per request)
+// with the shared JWTTokenService. Run it with the main method below or through the JMH runner.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTTokenServiceBenchmark {
+
+    private JWTTokenService jwtTokenService;
+    private String jwt;
+
+    @Setup
+    public void setup() {
+        jwtTokenService = new JWTTokenService(JWTKeyRing.hmac(ApplicationConstants.JWT_SECRET_DEFAULT_VALUE),
+                new AuthorityRegistry(), Duration.ofMinutes(15));
+        jwt = jwtTokenService.generateToken(new UsernamePasswordAuthenticationToken("happy@example.com", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN")));
+    }
+
+    @Benchmark
+    public Claims perRequestKeyDerivation() {
+        SecretKey secretKey = Keys.hmacShaKeyFor(ApplicationConstants.JWT_SECRET_DEFAULT_VALUE.getBytes(StandardCharsets.UTF_8));
+        return Jwts.parser().verifyWith(secretKey).build().parseSignedClaims(jwt).getPayload();
+    }
+
+    @Benchmark
+    public Claims sharedTokenService() {
+        return jwtTokenService.parseToken(jwt);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(JWTTokenServiceBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+}
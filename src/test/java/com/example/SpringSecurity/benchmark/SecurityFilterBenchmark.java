@@ -0,0 +1,144 @@
+package com.example.SpringSecurity.benchmark;
+
+import com.example.SpringSecurity.constants.ApplicationConstants;
+import com.example.SpringSecurity.filter.CsrfTokenFilter;
+import com.example.SpringSecurity.filter.JWTTokenGeneratorFilter;
+import com.example.SpringSecurity.filter.JWTTokenValidatorFilter;
+import com.example.SpringSecurity.filter.RequestValidationBeforeFilter;
+import com.example.SpringSecurity.repository.RefreshTokenRepository;
+import com.example.SpringSecurity.service.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.security.web.csrf.DefaultCsrfToken;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+// Each custom filter on its own, driven by mock requests. The database is replaced by a Mockito mock,
+// so these numbers show only the cost of the filter code; SecurityFilterChainBenchmark measures the whole chain.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityFilterBenchmark {
+
+    private JWTTokenValidatorFilter validatorFilter;
+    private JWTTokenValidatorFilter cachingValidatorFilter;
+    private JWTTokenGeneratorFilter issuingGeneratorFilter;
+    private JWTTokenGeneratorFilter reusingGeneratorFilter;
+    private RequestValidationBeforeFilter requestValidationBeforeFilter;
+    private CsrfTokenFilter csrfTokenFilter;
+    private CsrfToken csrfToken;
+    private Authentication jwtAuthentication;
+    private String jwt;
+    private String basicHeader;
+
+    @Setup
+    public void setup() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuthorityRegistry authorityRegistry = new AuthorityRegistry();
+        JWTTokenService jwtTokenService = new JWTTokenService(JWTKeyRing.hmac(ApplicationConstants.JWT_SECRET_DEFAULT_VALUE),
+                authorityRegistry, Duration.ofMinutes(15));
+        TokenRevocationService tokenRevocationService = new TokenRevocationService(1 << 20, Duration.ofMinutes(15));
+        RefreshTokenService refreshTokenService = new RefreshTokenService(Mockito.mock(RefreshTokenRepository.class),
+                jwtTokenService, authorityRegistry, tokenRevocationService, Duration.ofDays(14), 5);
+
+        validatorFilter = new JWTTokenValidatorFilter(jwtTokenService,
+                new JWTTokenCache(false, 0, meterRegistry), tokenRevocationService);
+        cachingValidatorFilter = new JWTTokenValidatorFilter(jwtTokenService,
+                new JWTTokenCache(true, 10000, meterRegistry), tokenRevocationService);
+        issuingGeneratorFilter = new JWTTokenGeneratorFilter(jwtTokenService, refreshTokenService,
+                new JWTIssuancePolicy(JWTIssuancePolicy.Mode.ALWAYS, Duration.ofMinutes(5), meterRegistry));
+        reusingGeneratorFilter = new JWTTokenGeneratorFilter(jwtTokenService, refreshTokenService,
+                new JWTIssuancePolicy(JWTIssuancePolicy.Mode.THRESHOLD, Duration.ofMinutes(5), meterRegistry));
+        requestValidationBeforeFilter = new RequestValidationBeforeFilter();
+        csrfTokenFilter = new CsrfTokenFilter();
+        csrfToken = new DefaultCsrfToken("X-XSRF-TOKEN", "_csrf", "4f0b7d0a-5b7e-4a4a-9d4e-3f5c2a1b0c9d");
+
+        jwt = jwtTokenService.generateToken(new JWTAuthenticationToken("happy@example.com",
+                AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN"), null, 0, 0));
+        jwtAuthentication = jwtTokenService.toAuthentication(jwtTokenService.parseToken(jwt));
+        basicHeader = "Basic " + Base64.getEncoder().encodeToString("happy@example.com:12345".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse jwtValidator() throws ServletException, IOException {
+        return run(validatorFilter, jwtRequest("/myAccount"));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse jwtValidatorWithCache() throws ServletException, IOException {
+        return run(cachingValidatorFilter, jwtRequest("/myAccount"));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse jwtGeneratorIssue() throws ServletException, IOException {
+        SecurityContextHolder.getContext().setAuthentication(jwtAuthentication);
+        return run(issuingGeneratorFilter, jwtRequest("/user"));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse jwtGeneratorReuse() throws ServletException, IOException {
+        SecurityContextHolder.getContext().setAuthentication(jwtAuthentication);
+        return run(reusingGeneratorFilter, jwtRequest("/user"));
+    }
+
+    @Benchmark
+    public MockHttpServletResponse requestValidationBefore() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user");
+        request.addHeader(HttpHeaders.AUTHORIZATION, basicHeader);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        requestValidationBeforeFilter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse csrfToken() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/myAccount");
+        request.setAttribute(CsrfToken.class.getName(), csrfToken);
+        return run(csrfTokenFilter, request);
+    }
+
+    private MockHttpServletRequest jwtRequest(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        request.addHeader(ApplicationConstants.JWT_HEADER, jwt);
+        return request;
+    }
+
+    private static MockHttpServletResponse run(jakarta.servlet.Filter filter, MockHttpServletRequest request)
+            throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(SecurityFilterBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+}
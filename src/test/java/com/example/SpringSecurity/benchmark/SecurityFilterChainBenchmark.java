@@ -0,0 +1,147 @@
+package com.example.SpringSecurity.benchmark;
+
+import com.example.SpringSecurity.EasyBankBackendApplication;
+import com.example.SpringSecurity.constants.ApplicationConstants;
+import com.example.SpringSecurity.model.Authority;
+import com.example.SpringSecurity.model.Customer;
+import com.example.SpringSecurity.repository.CustomerRepository;
+import com.example.SpringSecurity.service.JWTAuthenticationToken;
+import com.example.SpringSecurity.service.JWTTokenService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.FilterChainProxy;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+// Starts the whole application (default profile, so the chain built by ProjectSecurityConfig) against an embedded
+// H2 database and drives the springSecurityFilterChain with mock requests. The controller is not called:
+// the MockFilterChain at the end of the chain stands for the DispatcherServlet.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityFilterChainBenchmark {
+
+    private static final String EMAIL = "happy@example.com";
+
+    private ConfigurableApplicationContext context;
+    private FilterChainProxy filterChainProxy;
+    private UserDetailsService userDetailsService;
+    private String jwt;
+    private String basicHeader;
+
+    @Setup
+    public void setup() {
+        // The H2 settings of the test profile (application-test.properties). Command line arguments, because
+        // application.properties sets spring.profiles.active itself and would override SpringApplicationBuilder.profiles
+        context = new SpringApplicationBuilder(EasyBankBackendApplication.class)
+                .run("--spring.profiles.active=test",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.security=ERROR",
+                        "--server.port=0");
+        filterChainProxy = context.getBean(FilterChainProxy.class);
+        userDetailsService = context.getBean(UserDetailsService.class);
+        createCustomer();
+
+        jwt = context.getBean(JWTTokenService.class).generateToken(new JWTAuthenticationToken(EMAIL,
+                AuthorityUtils.createAuthorityList("ROLE_USER", "ROLE_ADMIN", "VIEWACCOUNT"), null, 0, 0));
+        basicHeader = "Basic " + Base64.getEncoder().encodeToString((EMAIL + ":12345").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails loadUserByUsername() {
+        return userDetailsService.loadUserByUsername(EMAIL);
+    }
+
+    // Authenticated API call with a JWT: validator, CSRF, logging filters, authorization
+    @Benchmark
+    public MockHttpServletResponse chainWithJwt() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/myAccount");
+        request.setServletPath("/myAccount");
+        request.addHeader(ApplicationConstants.JWT_HEADER, jwt);
+        return run(request);
+    }
+
+    // Login: HTTP Basic on /user, user lookup in H2, token generation
+    @Benchmark
+    public MockHttpServletResponse chainWithBasicLogin() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user");
+        request.setServletPath("/user");
+        request.addHeader(HttpHeaders.AUTHORIZATION, basicHeader);
+        return run(request);
+    }
+
+    // Public endpoint without any credentials
+    @Benchmark
+    public MockHttpServletResponse chainAnonymous() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/notices");
+        request.setServletPath("/notices");
+        return run(request);
+    }
+
+    private MockHttpServletResponse run(MockHttpServletRequest request) throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filterChainProxy.doFilter(request, response, new MockFilterChain());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+        return response;
+    }
+
+    private void createCustomer() {
+        Customer customer = new Customer();
+        customer.setName("Happy");
+        customer.setEmail(EMAIL);
+        customer.setMobileNumber("5334122365");
+        customer.setPwd(context.getBean(PasswordEncoder.class).encode("12345"));
+        customer.setRole("admin");
+        customer.setCreateDt(new Date(System.currentTimeMillis()));
+        context.getBean(CustomerRepository.class).save(customer);
+        EntityManager entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        entityManager.getTransaction().begin();
+        for (String name : new String[]{"ROLE_USER", "ROLE_ADMIN", "VIEWACCOUNT"}) {
+            Authority authority = new Authority();
+            authority.setName(name);
+            authority.setCustomer(entityManager.find(Customer.class, customer.getId()));
+            entityManager.persist(authority);
+        }
+        entityManager.getTransaction().commit();
+        entityManager.close();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(SecurityFilterChainBenchmark.class.getSimpleName()).build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.example.SpringSecurity.config;
+
+import com.example.SpringSecurity.service.CredentialVerificationCache;
+import com.example.SpringSecurity.service.PasswordEncoderTuner;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// The prod AuthenticationProvider re-hashes a correct password whose stored hash is outdated (UserDetailsPasswordService)
+class PasswordHashUpgradeTest {
+
+    private static final String USERNAME = "happy@example.com";
+    private static final String PASSWORD = "EazyBytes@12345";
+
+    private final UserDetailsService userDetailsService = mock(UserDetailsService.class);
+    private final UserDetailsPasswordService userDetailsPasswordService = mock(UserDetailsPasswordService.class);
+
+    @Test
+    void noopHashIsUpgradedToBcrypt() {
+        PasswordEncoder passwordEncoder = encoder(PasswordEncoderTuner.BCRYPT);
+        UserDetails stored = user("{noop}" + PASSWORD);
+        when(userDetailsPasswordService.updatePassword(any(), anyString()))
+                .thenAnswer(invocation -> user(invocation.getArgument(1)));
+
+        login(passwordEncoder, stored, PASSWORD);
+
+        verify(userDetailsPasswordService).updatePassword(eq(stored),
+                argThat(hash -> hash.startsWith("{bcrypt}") && passwordEncoder.matches(PASSWORD, hash)));
+    }
+
+    @Test
+    void bcryptBelowTheConfiguredStrengthIsUpgraded() {
+        PasswordEncoder passwordEncoder = encoder(PasswordEncoderTuner.BCRYPT);
+        UserDetails stored = user("{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD));
+        when(userDetailsPasswordService.updatePassword(any(), anyString()))
+                .thenAnswer(invocation -> user(invocation.getArgument(1)));
+
+        login(passwordEncoder, stored, PASSWORD);
+
+        verify(userDetailsPasswordService).updatePassword(eq(stored), anyString());
+    }
+
+    @Test
+    void bcryptIsUpgradedToArgon2WhenArgon2IsConfigured() {
+        PasswordEncoder passwordEncoder = encoder(PasswordEncoderTuner.ARGON2);
+        UserDetails stored = user("{bcrypt}" + new BCryptPasswordEncoder(10).encode(PASSWORD));
+        when(userDetailsPasswordService.updatePassword(any(), anyString()))
+                .thenAnswer(invocation -> user(invocation.getArgument(1)));
+
+        login(passwordEncoder, stored, PASSWORD);
+
+        verify(userDetailsPasswordService).updatePassword(eq(stored),
+                argThat(hash -> hash.startsWith("{argon2}") && passwordEncoder.matches(PASSWORD, hash)));
+    }
+
+    @Test
+    void currentHashAndWrongPasswordAreNotUpgraded() {
+        PasswordEncoder passwordEncoder = encoder(PasswordEncoderTuner.BCRYPT);
+        UserDetails stored = user(passwordEncoder.encode(PASSWORD));
+
+        login(passwordEncoder, stored, PASSWORD);
+        assertThatThrownBy(() -> login(passwordEncoder, user("{noop}" + PASSWORD), "wrong"))
+                .isInstanceOf(BadCredentialsException.class);
+
+        verify(userDetailsPasswordService, never()).updatePassword(any(), anyString());
+    }
+
+    @Test
+    void failedUpgradeDoesNotFailTheLogin() {
+        PasswordEncoder passwordEncoder = encoder(PasswordEncoderTuner.BCRYPT);
+        when(userDetailsPasswordService.updatePassword(any(), anyString())).thenThrow(new IllegalStateException("database down"));
+
+        assertThat(login(passwordEncoder, user("{noop}" + PASSWORD), PASSWORD).isAuthenticated()).isTrue();
+    }
+
+    private Authentication login(PasswordEncoder passwordEncoder, UserDetails stored, String password) {
+        when(userDetailsService.loadUserByUsername(USERNAME)).thenReturn(stored);
+        EazyBankProdUsernamePasswordAuthenticationProvider provider = new EazyBankProdUsernamePasswordAuthenticationProvider(
+                userDetailsService, passwordEncoder,
+                new CredentialVerificationCache(false, Duration.ofMinutes(2), 100, new SimpleMeterRegistry()),
+                userDetailsPasswordService);
+        return provider.authenticate(UsernamePasswordAuthenticationToken.unauthenticated(USERNAME, password));
+    }
+
+    // bcrypt strength 5 and a small argon2 memory keep the test fast, the upgrade rules are the same
+    private static PasswordEncoder encoder(String algorithm) {
+        return new PasswordEncoderTuner(algorithm, 5, 1024, 1, 1, false, Duration.ofMillis(250)).createPasswordEncoder();
+    }
+
+    private static UserDetails user(String hash) {
+        return User.withUsername(USERNAME).password(hash).authorities("ROLE_USER").build();
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.example.SpringSecurity.controller;
+
+import com.example.SpringSecurity.constants.ApplicationConstants;
+import com.example.SpringSecurity.model.AccountTransactions;
+import com.example.SpringSecurity.repository.AccountTransactionsRepository;
+import com.example.SpringSecurity.service.TransactionCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Walks /myBalance page by page on the embedded H2 database. Several transactions share a date,
+// so the pages only line up if transaction_id breaks the ties at every page boundary.
+@DataJpaTest
+class BalanceControllerPagingTest {
+
+    private static final long CUSTOMER_ID = 1;
+
+    @Autowired
+    private AccountTransactionsRepository accountTransactionsRepository;
+
+    private BalanceController balanceController;
+
+    @BeforeEach
+    void setUp() {
+        balanceController = new BalanceController(accountTransactionsRepository, null);
+        String[][] rows = {
+                {"t1", "2024-03-01"}, {"t2", "2024-03-01"}, {"t3", "2024-03-01"},
+                {"t4", "2024-03-02"}, {"t5", "2024-03-02"},
+                {"t6", "2024-03-03"}, {"t7", "2024-03-04"}};
+        for (String[] row : rows) {
+            accountTransactionsRepository.save(transaction(row[0], CUSTOMER_ID, Date.valueOf(row[1])));
+        }
+        accountTransactionsRepository.save(transaction("other", 2, Date.valueOf("2024-03-02")));
+        accountTransactionsRepository.flush();
+    }
+
+    @Test
+    void pagesCoverEveryTransactionOnceNewestFirst() {
+        List<String> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            ResponseEntity<List<AccountTransactions>> response = balanceController.getBalanceDetails(CUSTOMER_ID, cursor, 2);
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+            response.getBody().forEach(transaction -> seen.add(transaction.getTransactionId()));
+            pageSizes.add(response.getBody().size());
+            cursor = response.getHeaders().getFirst(ApplicationConstants.NEXT_CURSOR_HEADER);
+        } while (cursor != null);
+
+        assertThat(seen).containsExactly("t7", "t6", "t5", "t4", "t3", "t2", "t1");
+        assertThat(pageSizes).containsExactly(2, 2, 2, 1);
+    }
+
+    @Test
+    void exactlyOneFullPageHasNoNextCursor() {
+        ResponseEntity<List<AccountTransactions>> response = balanceController.getBalanceDetails(CUSTOMER_ID, null, 7);
+
+        assertThat(response.getBody()).hasSize(7);
+        assertThat(response.getHeaders().containsKey(ApplicationConstants.NEXT_CURSOR_HEADER)).isFalse();
+    }
+
+    @Test
+    void cursorOfAnotherCustomerIsRejected() {
+        String cursor = new TransactionCursor(2, Date.valueOf("2024-03-02"), "other").encode();
+
+        assertThat(balanceController.getBalanceDetails(CUSTOMER_ID, cursor, 2).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(balanceController.getBalanceDetails(CUSTOMER_ID, "garbage", 2).getStatusCode())
+                .isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void transactionWithoutDateIsRefused() {
+        assertThatThrownBy(() -> accountTransactionsRepository.saveAndFlush(transaction("undated", CUSTOMER_ID, null)))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private static AccountTransactions transaction(String id, long customerId, Date transactionDt) {
+        AccountTransactions transaction = new AccountTransactions();
+        transaction.setTransactionId(id);
+        transaction.setAccountNumber(1865764534);
+        transaction.setCustomerId(customerId);
+        transaction.setTransactionDt(transactionDt);
+        transaction.setTransactionSummary("Coffee Shop");
+        transaction.setTransactionType("Withdrawal");
+        transaction.setTransactionAmt(30);
+        transaction.setClosingBalance(34500);
+        return transaction;
+    }
+
+}
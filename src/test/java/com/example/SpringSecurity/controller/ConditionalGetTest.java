@@ -0,0 +1,126 @@
+package com.example.SpringSecurity.controller;
+
+import com.example.SpringSecurity.model.Accounts;
+import com.example.SpringSecurity.model.Cards;
+import com.example.SpringSecurity.repository.AccountsRepository;
+import com.example.SpringSecurity.repository.CardsRepository;
+import com.example.SpringSecurity.service.CustomerDataVersions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// /myAccount and /myCards on the embedded H2 database. Not transactional, so every JPA save commits and the
+// CustomerDataVersions entity listener bumps the counters as it does in the application.
+@DataJpaTest
+@Import(CustomerDataVersions.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ConditionalGetTest {
+
+    private static final long CUSTOMER_ID = 1;
+
+    @Autowired
+    private AccountsRepository accountsRepository;
+
+    @Autowired
+    private CardsRepository cardsRepository;
+
+    @Autowired
+    private CustomerDataVersions customerDataVersions;
+
+    private AccountController accountController;
+    private CardsController cardsController;
+
+    @BeforeEach
+    void setUp() {
+        accountController = new AccountController(accountsRepository, null, customerDataVersions);
+        cardsController = new CardsController(cardsRepository, customerDataVersions);
+        Accounts account = new Accounts();
+        account.setAccountNumber(1865764534);
+        account.setCustomerId(CUSTOMER_ID);
+        account.setAccountType("Savings");
+        account.setBranchAddress("123 Main Street, New York");
+        accountsRepository.save(account);
+    }
+
+    @AfterEach
+    void tearDown() {
+        accountsRepository.deleteAll();
+        cardsRepository.deleteAll();
+    }
+
+    @Test
+    void matchingIfNoneMatchGets304WithoutBody() {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        ResponseEntity<Accounts> full = accountController.getAccountDetails(CUSTOMER_ID, request(null, first));
+        String etag = full.getHeaders().getETag();
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        ResponseEntity<Accounts> conditional = accountController.getAccountDetails(CUSTOMER_ID, request(etag, second));
+
+        assertThat(full.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(full.getBody().getAccountType()).isEqualTo("Savings");
+        assertThat(etag).startsWith("\"accounts-1-");
+        assertThat(conditional).isNull();
+        assertThat(second.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        assertThat(second.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+    }
+
+    @Test
+    void jpaWriteChangesTheEtagOfThatResourceOnly() {
+        String accountsEtag = customerDataVersions.etag(CustomerDataVersions.Resource.ACCOUNTS, CUSTOMER_ID);
+        String cardsEtag = customerDataVersions.etag(CustomerDataVersions.Resource.CARDS, CUSTOMER_ID);
+
+        Accounts account = accountsRepository.findByCustomerId(CUSTOMER_ID);
+        account.setBranchAddress("1 Wall Street, New York");
+        accountsRepository.save(account);
+
+        assertThat(customerDataVersions.etag(CustomerDataVersions.Resource.ACCOUNTS, CUSTOMER_ID)).isNotEqualTo(accountsEtag);
+        assertThat(customerDataVersions.etag(CustomerDataVersions.Resource.CARDS, CUSTOMER_ID)).isEqualTo(cardsEtag);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ResponseEntity<Accounts> afterWrite = accountController.getAccountDetails(CUSTOMER_ID, request(accountsEtag, response));
+        assertThat(afterWrite.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(afterWrite.getBody().getBranchAddress()).isEqualTo("1 Wall Street, New York");
+        assertThat(afterWrite.getHeaders().getETag()).isNotEqualTo(accountsEtag);
+    }
+
+    @Test
+    void newCardInvalidatesTheCardsEtag() {
+        ResponseEntity<List<Cards>> before = cardsController.getCardsDetails(CUSTOMER_ID, request(null, new MockHttpServletResponse()));
+        String etag = before.getHeaders().getETag();
+        assertThat(before.getBody()).isEmpty();
+
+        Cards card = new Cards();
+        card.setCardId(1);
+        card.setCustomerId(CUSTOMER_ID);
+        card.setTotalLimit(10000);
+        cardsRepository.save(card);
+
+        ResponseEntity<List<Cards>> after = cardsController.getCardsDetails(CUSTOMER_ID, request(etag, new MockHttpServletResponse()));
+        assertThat(after.getBody()).hasSize(1);
+        assertThat(after.getHeaders().getETag()).isNotEqualTo(etag);
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch, MockHttpServletResponse response) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/myAccount");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, response);
+    }
+
+}
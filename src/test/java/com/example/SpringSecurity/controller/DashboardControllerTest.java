@@ -0,0 +1,134 @@
+package com.example.SpringSecurity.controller;
+
+import com.example.SpringSecurity.model.AccountTransactions;
+import com.example.SpringSecurity.model.Accounts;
+import com.example.SpringSecurity.model.Cards;
+import com.example.SpringSecurity.model.DashboardDTO;
+import com.example.SpringSecurity.model.Loans;
+import com.example.SpringSecurity.service.DashboardExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DashboardControllerTest {
+
+    private static final long CUSTOMER_ID = 1;
+
+    private final AccountController accountController = mock(AccountController.class);
+    private final BalanceController balanceController = mock(BalanceController.class);
+    private final CardsController cardsController = mock(CardsController.class);
+    private final LoansController loansController = mock(LoansController.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private DashboardExecutor dashboardExecutor;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        if (dashboardExecutor != null) {
+            dashboardExecutor.close();
+        }
+    }
+
+    @Test
+    void partsRunAtTheSameTimeWithTheCallersSecurityContext() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("happy@example.com", null, List.of()));
+        // Every part waits until all four have started, so the test only passes if they run in parallel
+        CyclicBarrier allStarted = new CyclicBarrier(4);
+        AtomicReference<String> partUser = new AtomicReference<>();
+        when(accountController.getAccountDetails(eq(CUSTOMER_ID), isNull())).thenAnswer(invocation -> {
+            partUser.set(SecurityContextHolder.getContext().getAuthentication().getName());
+            allStarted.await(2, TimeUnit.SECONDS);
+            return ResponseEntity.ok(new Accounts());
+        });
+        when(balanceController.getBalanceDetails(eq(CUSTOMER_ID), isNull(), anyInt())).thenAnswer(invocation -> {
+            allStarted.await(2, TimeUnit.SECONDS);
+            return ResponseEntity.ok().header("X-Next-Cursor", "next").body(List.of(new AccountTransactions()));
+        });
+        when(cardsController.getCardsDetails(eq(CUSTOMER_ID), isNull())).thenAnswer(invocation -> {
+            allStarted.await(2, TimeUnit.SECONDS);
+            return ResponseEntity.ok(List.of(new Cards()));
+        });
+        when(loansController.getLoansDetails(eq(CUSTOMER_ID), isNull())).thenAnswer(invocation -> {
+            allStarted.await(2, TimeUnit.SECONDS);
+            return ResponseEntity.ok(List.of(new Loans()));
+        });
+
+        DashboardDTO dashboard = controller(4, 8, Duration.ofSeconds(5)).getDashboard(CUSTOMER_ID);
+
+        assertThat(dashboard.errors()).isEmpty();
+        assertThat(dashboard.account()).isNotNull();
+        assertThat(dashboard.transactions()).hasSize(1);
+        assertThat(dashboard.nextCursor()).isEqualTo("next");
+        assertThat(dashboard.cards()).hasSize(1);
+        assertThat(dashboard.loans()).hasSize(1);
+        assertThat(partUser.get()).isEqualTo("happy@example.com");
+        // The parts go through the ExecutorServiceMetrics wrapper, so each one is timed
+        assertThat(meterRegistry.get("executor").tag("name", "dashboard").timer().count()).isEqualTo(4);
+    }
+
+    @Test
+    void failedForbiddenAndSlowPartsDoNotFailTheOthers() {
+        CountDownLatch never = new CountDownLatch(1);
+        when(accountController.getAccountDetails(eq(CUSTOMER_ID), any())).thenReturn(ResponseEntity.ok(new Accounts()));
+        when(balanceController.getBalanceDetails(eq(CUSTOMER_ID), any(), anyInt())).thenAnswer(invocation -> {
+            never.await();
+            return null;
+        });
+        when(cardsController.getCardsDetails(eq(CUSTOMER_ID), any())).thenThrow(new IllegalStateException("database down"));
+        when(loansController.getLoansDetails(eq(CUSTOMER_ID), any())).thenThrow(new AccessDeniedException("Access Denied"));
+
+        DashboardDTO dashboard = controller(4, 8, Duration.ofMillis(300)).getDashboard(CUSTOMER_ID);
+
+        assertThat(dashboard.account()).isNotNull();
+        assertThat(dashboard.transactions()).isNull();
+        assertThat(dashboard.cards()).isNull();
+        assertThat(dashboard.loans()).isNull();
+        assertThat(dashboard.errors()).containsEntry("transactions", "timeout")
+                .containsEntry("cards", "error")
+                .containsEntry("loans", "forbidden");
+    }
+
+    @Test
+    void partsThatDoNotFitIntoThePoolAreBusy() {
+        // account keeps the only thread busy while the other parts are submitted
+        when(accountController.getAccountDetails(eq(CUSTOMER_ID), any())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return ResponseEntity.ok(new Accounts());
+        });
+        when(balanceController.getBalanceDetails(eq(CUSTOMER_ID), any(), anyInt())).thenReturn(ResponseEntity.ok(List.of()));
+
+        // One thread and one queue slot: account runs, transactions waits, cards and loans are rejected
+        DashboardDTO dashboard = controller(1, 1, Duration.ofSeconds(5)).getDashboard(CUSTOMER_ID);
+
+        assertThat(dashboard.account()).isNotNull();
+        assertThat(dashboard.errors()).containsEntry("cards", "busy").containsEntry("loans", "busy")
+                .doesNotContainKeys("account", "transactions");
+    }
+
+    private DashboardController controller(int poolSize, int queueCapacity, Duration partTimeout) {
+        dashboardExecutor = new DashboardExecutor(poolSize, queueCapacity, partTimeout, meterRegistry);
+        return new DashboardController(accountController, balanceController, cardsController, loansController,
+                dashboardExecutor);
+    }
+
+}
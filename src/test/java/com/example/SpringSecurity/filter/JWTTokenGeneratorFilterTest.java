@@ -0,0 +1,75 @@
+package com.example.SpringSecurity.filter;
+
+import com.example.SpringSecurity.constants.ApplicationConstants;
+import com.example.SpringSecurity.service.AuthorityRegistry;
+import com.example.SpringSecurity.service.JWTAuthenticationToken;
+import com.example.SpringSecurity.service.JWTIssuancePolicy;
+import com.example.SpringSecurity.service.JWTKeyRing;
+import com.example.SpringSecurity.service.JWTTokenService;
+import com.example.SpringSecurity.service.RefreshTokenService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JWTTokenGeneratorFilterTest {
+
+    private final JWTTokenService jwtTokenService = new JWTTokenService(
+            JWTKeyRing.hmac(ApplicationConstants.JWT_SECRET_DEFAULT_VALUE), new AuthorityRegistry(), Duration.ofMinutes(15));
+    private final RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+    private final JWTTokenGeneratorFilter filter = new JWTTokenGeneratorFilter(jwtTokenService, refreshTokenService,
+            new JWTIssuancePolicy(JWTIssuancePolicy.Mode.THRESHOLD, Duration.ofMinutes(5), new SimpleMeterRegistry()));
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void passwordLoginGetsAccessAndRefreshToken() throws Exception {
+        when(refreshTokenService.issue(any())).thenReturn("refresh");
+        MockHttpServletResponse response = callUser(new UsernamePasswordAuthenticationToken("happy@example.com", null,
+                AuthorityUtils.createAuthorityList("ROLE_USER")));
+
+        assertThat(response.getHeader(ApplicationConstants.JWT_HEADER)).isNotBlank();
+        assertThat(response.getHeader(ApplicationConstants.REFRESH_TOKEN_HEADER)).isEqualTo("refresh");
+    }
+
+    @Test
+    void jwtCloseToExpiryGetsNoRefreshToken() throws Exception {
+        // Two minutes left, below the five minute threshold, so a new access token is signed
+        JWTAuthenticationToken authentication = new JWTAuthenticationToken("happy@example.com",
+                AuthorityUtils.createAuthorityList("ROLE_USER"), "jti", System.currentTimeMillis(),
+                System.currentTimeMillis() + Duration.ofMinutes(2).toMillis());
+        MockHttpServletResponse response = callUser(authentication);
+
+        assertThat(response.getHeader(ApplicationConstants.JWT_HEADER)).isNotBlank();
+        assertThat(response.getHeader(ApplicationConstants.REFRESH_TOKEN_HEADER)).isNull();
+        verify(refreshTokenService, never()).issue(any());
+    }
+
+    private MockHttpServletResponse callUser(Authentication authentication) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user");
+        request.setServletPath("/user");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.example.SpringSecurity.filter;
+
+import com.example.SpringSecurity.exceptionhandling.CustomBasicAuthenticationEntryPoint;
+import com.example.SpringSecurity.service.LoginRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginRateLimitFilterTest {
+
+    // One attempt per minute, no burst beyond it
+    private final LoginRateLimitFilter filter = new LoginRateLimitFilter(
+            new LoginRateLimiter(true, 1, 1, 1, 1, 2, 16, new SimpleMeterRegistry()),
+            new CustomBasicAuthenticationEntryPoint());
+
+    @Test
+    void rejectedBasicLoginGets429FromTheEntryPoint() throws Exception {
+        assertThat(basicLogin().getStatus()).isEqualTo(HttpStatus.OK.value());
+
+        MockHttpServletResponse rejected = basicLogin();
+
+        assertThat(rejected.getStatus()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+        assertThat(rejected.getHeader(HttpHeaders.RETRY_AFTER)).isNotBlank();
+        assertThat(rejected.getContentAsString()).contains("Too many login attempts");
+    }
+
+    @Test
+    void requestsWithoutBasicCredentialsAreNotCounted() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/myAccount");
+            request.addHeader(HttpHeaders.AUTHORIZATION, "eyJhbGciOiJIUzI1NiJ9.e30.signature");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            filter.doFilter(request, response, new MockFilterChain());
+            assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        }
+    }
+
+    private MockHttpServletResponse basicLogin() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Basic " + Base64.getEncoder()
+                .encodeToString("happy@example.com:wrong".getBytes(StandardCharsets.UTF_8)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.example.SpringSecurity.repository;
+
+import com.example.SpringSecurity.model.AccountTransactions;
+import com.example.SpringSecurity.model.Cards;
+import com.example.SpringSecurity.model.Customer;
+import com.example.SpringSecurity.model.CustomerAccountSummary;
+import com.example.SpringSecurity.model.Loans;
+import com.example.SpringSecurity.service.AccountSummaryService;
+import com.example.SpringSecurity.service.AccountSummaryUpdater;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// customer_account_summary on the embedded H2 database. Not transactional, so every JPA save commits and
+// AccountSummaryUpdater recomputes the summary after the commit as it does in the application.
+@DataJpaTest
+@Import({AccountSummaryService.class, AccountSummaryUpdater.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AccountSummaryTest {
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CardsRepository cardsRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private AccountTransactionsRepository accountTransactionsRepository;
+
+    @Autowired
+    private CustomerAccountSummaryRepository summaryRepository;
+
+    @Autowired
+    private AccountSummaryService accountSummaryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long customerId;
+
+    @BeforeEach
+    void setUp() {
+        Customer customer = new Customer();
+        customer.setName("Happy");
+        customer.setEmail("happy@example.com");
+        customer.setPwd("{noop}EazyBytes@12345");
+        customer.setRole("read");
+        customerId = customerRepository.save(customer).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        accountTransactionsRepository.deleteAll();
+        cardsRepository.deleteAll();
+        loanRepository.deleteAll();
+        summaryRepository.deleteAll();
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void cardLoanAndTransactionChangesUpdateTheSummary() {
+        Cards card = cardsRepository.save(card(1, 10000, 500));
+        Loans loan = loanRepository.save(loan(1, 20000, 15000));
+        accountTransactionsRepository.save(transaction("tx-1", LocalDate.of(2024, 9, 1), 34500));
+        accountTransactionsRepository.save(transaction("tx-2", LocalDate.of(2024, 9, 2), 34000));
+
+        CustomerAccountSummary summary = summaryRepository.findById(customerId).orElseThrow();
+        assertThat(summary.getCardCount()).isEqualTo(1);
+        assertThat(summary.getCardsTotalLimit()).isEqualTo(10000);
+        assertThat(summary.getCardsAmountUsed()).isEqualTo(500);
+        assertThat(summary.getLoanCount()).isEqualTo(1);
+        assertThat(summary.getLoansTotal()).isEqualTo(20000);
+        assertThat(summary.getLoansOutstanding()).isEqualTo(15000);
+        assertThat(summary.getClosingBalance()).isEqualTo(34000);
+        assertThat(summary.getLastTransactionDt()).isEqualTo(Date.valueOf(LocalDate.of(2024, 9, 2)));
+
+        card.setAmountUsed(2500);
+        cardsRepository.save(card);
+        loanRepository.delete(loan);
+
+        summary = summaryRepository.findById(customerId).orElseThrow();
+        assertThat(summary.getCardsAmountUsed()).isEqualTo(2500);
+        assertThat(summary.getCardUtilization()).isEqualTo(0.25);
+        assertThat(summary.getLoanCount()).isZero();
+        assertThat(summary.getLoansOutstanding()).isZero();
+        assertThat(accountSummaryService.check(10).mismatched()).isZero();
+    }
+
+    @Test
+    void checkReportsRowsChangedBySqlAndRebuildRepairsThem() {
+        cardsRepository.save(card(1, 10000, 500));
+        // SQL does not go through the JPA listeners: one summary is damaged, one source row changes behind its back
+        jdbcTemplate.update("update customer_account_summary set cards_total_limit = 1 where customer_id = ?", customerId);
+        jdbcTemplate.update("update cards set amount_used = 700 where card_id = 1");
+
+        AccountSummaryService.ConsistencyReport report = accountSummaryService.check(10);
+
+        assertThat(report.checked()).isEqualTo(1);
+        assertThat(report.mismatched()).isEqualTo(1);
+        assertThat(report.mismatchedCustomerIds()).containsExactly(customerId);
+
+        assertThat(accountSummaryService.rebuildAll()).isEqualTo(1);
+
+        assertThat(accountSummaryService.check(10).mismatched()).isZero();
+        CustomerAccountSummary summary = summaryRepository.findById(customerId).orElseThrow();
+        assertThat(summary.getCardsTotalLimit()).isEqualTo(10000);
+        assertThat(summary.getCardsAmountUsed()).isEqualTo(700);
+    }
+
+    private Cards card(long cardId, int totalLimit, int amountUsed) {
+        Cards card = new Cards();
+        card.setCardId(cardId);
+        card.setCustomerId(customerId);
+        card.setTotalLimit(totalLimit);
+        card.setAmountUsed(amountUsed);
+        return card;
+    }
+
+    private Loans loan(long loanNumber, int totalLoan, int outstandingAmount) {
+        Loans loan = new Loans();
+        loan.setLoanNumber(loanNumber);
+        loan.setCustomerId(customerId);
+        loan.setTotalLoan(totalLoan);
+        loan.setOutstandingAmount(outstandingAmount);
+        return loan;
+    }
+
+    private AccountTransactions transaction(String transactionId, LocalDate date, int closingBalance) {
+        AccountTransactions transaction = new AccountTransactions();
+        transaction.setTransactionId(transactionId);
+        transaction.setCustomerId(customerId);
+        transaction.setTransactionDt(Date.valueOf(date));
+        transaction.setClosingBalance(closingBalance);
+        return transaction;
+    }
+
+}
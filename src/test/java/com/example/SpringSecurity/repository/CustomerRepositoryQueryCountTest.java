@@ -0,0 +1,95 @@
+package com.example.SpringSecurity.repository;
+
+import com.example.SpringSecurity.config.EazyBankUserDetailsService;
+import com.example.SpringSecurity.model.Authority;
+import com.example.SpringSecurity.model.Customer;
+import com.example.SpringSecurity.service.AuthorityRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.cache.NullUserCache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs on the embedded H2 database (test scope). Hibernate statistics count the JDBC statements,
+// so a change that brings back the secondary authorities select makes these tests fail.
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class CustomerRepositoryQueryCountTest {
+
+    private static final String EMAIL = "happy@example.com";
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Customer customer = new Customer();
+        customer.setName("Happy");
+        customer.setEmail(EMAIL);
+        customer.setPwd("{noop}12345");
+        customer.setRole("admin");
+        entityManager.persist(customer);
+        for (String name : new String[]{"ROLE_USER", "ROLE_ADMIN", "VIEWACCOUNT"}) {
+            Authority authority = new Authority();
+            authority.setName(name);
+            authority.setCustomer(customer);
+            entityManager.persist(authority);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void loadUserByUsernameRunsOneQuery() {
+        EazyBankUserDetailsService userDetailsService =
+                new EazyBankUserDetailsService(customerRepository, new AuthorityRegistry(), new NullUserCache());
+
+        UserDetails user = userDetailsService.loadUserByUsername(EMAIL);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(user.getPassword()).isEqualTo("{noop}12345");
+        assertThat(AuthorityUtils.authorityListToSet(user.getAuthorities()))
+                .containsExactlyInAnyOrder("ROLE_USER", "ROLE_ADMIN", "VIEWACCOUNT");
+    }
+
+    @Test
+    void findByEmailDoesNotLoadAuthorities() {
+        Customer customer = customerRepository.findByEmail(EMAIL).orElseThrow();
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(Hibernate.isInitialized(customer.getAuthorities())).isFalse();
+    }
+
+    @Test
+    void customerWithoutAuthoritiesIsFound() {
+        Customer customer = new Customer();
+        customer.setEmail("plain@example.com");
+        customer.setPwd("{noop}12345");
+        entityManager.persistAndFlush(customer);
+        statistics.clear();
+
+        assertThat(customerRepository.findAuthRowsByEmail("plain@example.com"))
+                .singleElement()
+                .satisfies(row -> assertThat(row.getAuthority()).isNull());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.example.SpringSecurity.repository;
+
+import com.example.SpringSecurity.model.Accounts;
+import com.example.SpringSecurity.model.Cards;
+import com.example.SpringSecurity.model.Loans;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs on the embedded H2 database with the cache settings of application.properties (Ehcache regions from ehcache.xml).
+// Not transactional: every repository call is its own transaction, as in the controllers, so the second-level and
+// query cache entries are written on commit and a repeated read really starts from an empty persistence context.
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheTest {
+
+    private static final long CUSTOMER_ID = 1;
+
+    @Autowired
+    private AccountsRepository accountsRepository;
+
+    @Autowired
+    private CardsRepository cardsRepository;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        Accounts account = new Accounts();
+        account.setAccountNumber(1865764534);
+        account.setCustomerId(CUSTOMER_ID);
+        account.setAccountType("Savings");
+        accountsRepository.save(account);
+        for (int i = 1; i <= 3; i++) {
+            Cards card = new Cards();
+            card.setCardId(i);
+            card.setCustomerId(CUSTOMER_ID);
+            card.setTotalLimit(10000);
+            card.setAmountUsed(500 * i);
+            cardsRepository.save(card);
+            Loans loan = new Loans();
+            loan.setLoanNumber(i);
+            loan.setCustomerId(CUSTOMER_ID);
+            loan.setStartDt(Date.valueOf(LocalDate.of(2024, i, 1)));
+            loan.setTotalLoan(200000);
+            loanRepository.save(loan);
+        }
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        accountsRepository.deleteAll();
+        cardsRepository.deleteAll();
+        loanRepository.deleteAll();
+        sessionFactory.getCache().evictAllRegions();
+    }
+
+    @Test
+    void repeatedFindersRunNoSql() {
+        accountsRepository.findByCustomerId(CUSTOMER_ID);
+        cardsRepository.findByCustomerId(CUSTOMER_ID);
+        loanRepository.findByCustomerIdOrderByStartDtDesc(CUSTOMER_ID);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+
+        statistics.clear();
+        Accounts account = accountsRepository.findByCustomerId(CUSTOMER_ID);
+        assertThat(cardsRepository.findByCustomerId(CUSTOMER_ID)).hasSize(3);
+        assertThat(loanRepository.findByCustomerIdOrderByStartDtDesc(CUSTOMER_ID))
+                .extracting(Loans::getLoanNumber)
+                .containsExactly(3L, 2L, 1L);
+
+        assertThat(account.getAccountType()).isEqualTo("Savings");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(3);
+    }
+
+    @Test
+    void findByIdIsServedFromTheEntityRegion() {
+        cardsRepository.findById(1L);
+        statistics.clear();
+
+        assertThat(cardsRepository.findById(1L)).isPresent();
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getCacheRegionStatistics("cards").getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void writeInvalidatesCachedQueryResults() {
+        cardsRepository.findByCustomerId(CUSTOMER_ID);
+        Cards card = cardsRepository.findById(2L).orElseThrow();
+        card.setAmountUsed(9999);
+        cardsRepository.save(card);
+        statistics.clear();
+
+        assertThat(cardsRepository.findByCustomerId(CUSTOMER_ID))
+                .extracting(Cards::getAmountUsed)
+                .contains(9999);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.example.SpringSecurity.service;
+
+import com.example.SpringSecurity.exceptionhandling.CustomBasicAuthenticationEntryPoint;
+import com.example.SpringSecurity.exceptionhandling.GlobalExceptionHandler;
+import com.example.SpringSecurity.exceptionhandling.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedPasswordEncoderTest {
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // One hashing thread and one queue slot, the hash waits until the test releases it
+    private final BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BlockingPasswordEncoder(), 1, 1,
+            Duration.ofSeconds(5), Duration.ofSeconds(3), meterRegistry);
+
+    @AfterEach
+    void closeEncoder() {
+        release.countDown();
+        encoder.close();
+    }
+
+    @Test
+    void saturatedPoolIsRejectedWithRetryAfter() throws Exception {
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("second"));
+        awaitQueued(1);
+
+        assertThatThrownBy(() -> encoder.matches("third", "{noop}third"))
+                .isInstanceOfSatisfying(PasswordHashingBusyException.class,
+                        ex -> assertThat(ex.getRetryAfterSeconds()).isEqualTo(3));
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:first");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("hashed:second");
+        // Task times are only recorded when the tasks go through the wrapper of ExecutorServiceMetrics
+        assertThat(meterRegistry.get("executor").tag("name", "passwordHashing").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void busyBecomes503WithRetryAfter() throws Exception {
+        PasswordHashingBusyException busy = new PasswordHashingBusyException("Too many password checks in progress", 3);
+
+        // A login (HTTP Basic) goes through the AuthenticationEntryPoint
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new CustomBasicAuthenticationEntryPoint().commence(new MockHttpServletRequest("GET", "/user"), response, busy);
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE.value());
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+
+        // /register and /apiLogin hash inside the controller and go through the GlobalExceptionHandler
+        ResponseEntity<Map<String, Object>> entity = new GlobalExceptionHandler().handlePasswordHashingBusy(busy);
+        assertThat(entity.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(entity.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+    }
+
+    private void awaitQueued(int tasks) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("executor.queued").tag("name", "passwordHashing").gauge().value() < tasks) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private class BlockingPasswordEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return "hashed:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return encode(rawPassword).equals(encodedPassword);
+        }
+
+    }
+
+}
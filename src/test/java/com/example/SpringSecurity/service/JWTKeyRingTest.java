@@ -0,0 +1,52 @@
+package com.example.SpringSecurity.service;
+
+import com.example.SpringSecurity.constants.ApplicationConstants;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JWTKeyRingTest {
+
+    private final Authentication authentication = new UsernamePasswordAuthenticationToken("happy@example.com", null,
+            AuthorityUtils.createAuthorityList("ROLE_USER"));
+
+    @Test
+    void asymmetricModeRejectsHmacTokensByDefault() {
+        String hmacToken = service(JWTKeyRing.hmac(ApplicationConstants.JWT_SECRET_DEFAULT_VALUE)).generateToken(authentication);
+        JWTTokenService es256 = service(JWTKeyRing.generated(JWTKeyRing.ES256, ApplicationConstants.JWT_SECRET_DEFAULT_VALUE));
+
+        assertThatThrownBy(() -> es256.parseToken(hmacToken)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void migrationSwitchAcceptsHmacTokens() {
+        String hmacToken = service(JWTKeyRing.hmac(ApplicationConstants.JWT_SECRET_DEFAULT_VALUE)).generateToken(authentication);
+        JWTTokenService es256 = service(JWTKeyRing.generated(JWTKeyRing.ES256, ApplicationConstants.JWT_SECRET_DEFAULT_VALUE, true));
+
+        assertThat(es256.parseToken(hmacToken).get(JWTTokenService.USERNAME_CLAIM)).isEqualTo("happy@example.com");
+    }
+
+    @Test
+    void asymmetricTokensCarryTheKidAndVerify() {
+        JWTKeyRing keyRing = JWTKeyRing.generated(JWTKeyRing.EDDSA, ApplicationConstants.JWT_SECRET_DEFAULT_VALUE);
+        JWTTokenService eddsa = service(keyRing);
+
+        String token = eddsa.generateToken(authentication);
+
+        assertThat(keyRing.getSigningKeyId()).isNotNull();
+        assertThat(keyRing.getJwkSetJson()).contains(keyRing.getSigningKeyId());
+        assertThat(eddsa.parseToken(token).get(JWTTokenService.USERNAME_CLAIM)).isEqualTo("happy@example.com");
+    }
+
+    private static JWTTokenService service(JWTKeyRing keyRing) {
+        return new JWTTokenService(keyRing, new AuthorityRegistry(), Duration.ofMinutes(15));
+    }
+
+}
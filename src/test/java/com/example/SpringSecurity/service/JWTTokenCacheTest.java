@@ -0,0 +1,67 @@
+package com.example.SpringSecurity.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JWTTokenCacheTest {
+
+    private static final long HOUR = 3_600_000;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void returnsTheCachedAuthenticationUntilExp() {
+        JWTTokenCache cache = new JWTTokenCache(true, 100, meterRegistry);
+        JWTAuthenticationToken authentication = authentication("happy@example.com");
+
+        cache.put("token-1", authentication, new Date(System.currentTimeMillis() + HOUR));
+
+        assertThat(cache.get("token-1")).isSameAs(authentication);
+        assertThat(cache.get("token-2")).isNull();
+        assertThat(meterRegistry.counter("jwt.cache.requests", "result", "hit").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("jwt.cache.requests", "result", "miss").count()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredTokenIsNeverReturned() {
+        JWTTokenCache cache = new JWTTokenCache(true, 100, meterRegistry);
+
+        cache.put("expired", authentication("happy@example.com"), new Date(System.currentTimeMillis() - 1));
+
+        assertThat(cache.get("expired")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void sprayOfDistinctTokensStaysWithinMaxEntries() {
+        JWTTokenCache cache = new JWTTokenCache(true, 1000, meterRegistry);
+        Date exp = new Date(System.currentTimeMillis() + HOUR);
+
+        for (int i = 0; i < 50_000; i++) {
+            cache.put("bogus-" + i, authentication("user" + i), exp);
+        }
+
+        assertThat(cache.size()).isLessThanOrEqualTo(1000);
+        assertThat(meterRegistry.counter("jwt.cache.evictions").count()).isGreaterThanOrEqualTo(49_000);
+    }
+
+    @Test
+    void disabledCacheKeepsNothing() {
+        JWTTokenCache cache = new JWTTokenCache(false, 100, meterRegistry);
+
+        cache.put("token-1", authentication("happy@example.com"), new Date(System.currentTimeMillis() + HOUR));
+
+        assertThat(cache.get("token-1")).isNull();
+    }
+
+    private static JWTAuthenticationToken authentication(String username) {
+        long now = System.currentTimeMillis();
+        return new JWTAuthenticationToken(username, AuthorityUtils.createAuthorityList("ROLE_USER"), null, now, now + HOUR);
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.example.SpringSecurity.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.authentication.password.CompromisedPasswordChecker;
+import org.springframework.security.web.authentication.password.HaveIBeenPwnedRestApiPasswordChecker;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalCompromisedPasswordCheckerTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void findsEveryImportedPasswordAndNothingElse() throws IOException {
+        List<String> leaked = Stream.of("123456", "password", "qwerty", "letmein", "EazyBytes@12345").toList();
+        Path corpus = importPasswords(leaked, 10);
+
+        try (LocalCompromisedPasswordChecker checker = new LocalCompromisedPasswordChecker(corpus)) {
+            assertThat(checker.size()).isEqualTo(leaked.size());
+            for (String password : leaked) {
+                assertThat(checker.check(password).isCompromised()).as(password).isTrue();
+            }
+            assertThat(checker.check("correct horse battery staple").isCompromised()).isFalse();
+            assertThat(checker.check(null).isCompromised()).isFalse();
+        }
+    }
+
+    @Test
+    void rejectsAHeaderWithAnInvalidRecordLength() throws IOException {
+        Path corpus = directory.resolve("broken.bin");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(corpus))) {
+            out.write(LocalCompromisedPasswordChecker.MAGIC);
+            out.writeInt(0);
+            out.writeLong(0);
+        }
+
+        assertThatThrownBy(() -> new LocalCompromisedPasswordChecker(corpus))
+                .isInstanceOf(IOException.class).hasMessageContaining("invalid header");
+    }
+
+    @Test
+    void rejectsAFileShorterThanTheHeader() throws IOException {
+        Path corpus = Files.write(directory.resolve("short.bin"), LocalCompromisedPasswordChecker.MAGIC);
+
+        assertThatThrownBy(() -> new LocalCompromisedPasswordChecker(corpus))
+                .isInstanceOf(IOException.class).hasMessageContaining("too short");
+    }
+
+    @Test
+    void offlineFallsBackToRestOnlyWhenConfigured() throws IOException {
+        String missing = directory.resolve("missing.bin").toString();
+        String tooShort = Files.write(directory.resolve("short.bin"), new byte[3]).toString();
+
+        assertThat(CompromisedPasswordCheckers.create(CompromisedPasswordCheckers.OFFLINE, missing, true, Duration.ofSeconds(1)))
+                .isInstanceOf(HaveIBeenPwnedRestApiPasswordChecker.class);
+        assertThat(CompromisedPasswordCheckers.create(CompromisedPasswordCheckers.OFFLINE, tooShort, true, Duration.ofSeconds(1)))
+                .isInstanceOf(HaveIBeenPwnedRestApiPasswordChecker.class);
+        // Without rest-fallback the check is turned off instead of calling the API from /register
+        for (String corpus : List.of(missing, tooShort)) {
+            CompromisedPasswordChecker checker = CompromisedPasswordCheckers.create(CompromisedPasswordCheckers.OFFLINE,
+                    corpus, false, Duration.ofSeconds(1));
+            assertThat(checker).isNotInstanceOf(HaveIBeenPwnedRestApiPasswordChecker.class);
+            assertThat(checker.check("123456").isCompromised()).isFalse();
+        }
+    }
+
+    // Writes the passwords as an "ordered by hash" dump and converts it with PwnedPasswordsImporter
+    private Path importPasswords(List<String> passwords, int recordLength) throws IOException {
+        HexFormat hex = HexFormat.of().withUpperCase();
+        List<String> lines = passwords.stream()
+                .map(password -> hex.formatHex(LocalCompromisedPasswordChecker.sha1(password)) + ":3")
+                .sorted()
+                .toList();
+        Path dump = Files.write(directory.resolve("dump.txt"), lines);
+        Path corpus = directory.resolve("corpus.bin");
+        PwnedPasswordsImporter.importDump(dump, corpus, recordLength, 1);
+        return corpus;
+    }
+
+}
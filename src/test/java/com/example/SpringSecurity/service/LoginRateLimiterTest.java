@@ -0,0 +1,59 @@
+package com.example.SpringSecurity.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginRateLimiterTest {
+
+    private static final String USERNAME = "happy@example.com";
+    private static final String ATTACKER = "203.0.113.7";
+    private static final String OWNER = "198.51.100.1";
+
+    // 10 per minute with a burst of 5 per username and IP, 60 per minute with a burst of 20 per IP, a failure costs 2 more
+    private final LoginRateLimiter limiter = new LoginRateLimiter(true, 10, 5, 60, 20, 2, 1024, new SimpleMeterRegistry());
+
+    @Test
+    void failuresFromOneAddressDoNotLockTheUserOutEverywhere() {
+        fail(USERNAME, ATTACKER, 2);
+
+        assertThat(limiter.tryAcquire(USERNAME, ATTACKER)).isPositive();
+        assertThat(limiter.tryAcquire(USERNAME, OWNER)).isZero();
+    }
+
+    @Test
+    void oneAddressIsLimitedAcrossUsernames() {
+        for (int i = 0; i < 20; i++) {
+            assertThat(limiter.tryAcquire("user" + i + "@example.com", ATTACKER)).isZero();
+        }
+
+        assertThat(limiter.tryAcquire("another@example.com", ATTACKER)).isPositive();
+        assertThat(limiter.tryAcquire("another@example.com", OWNER)).isZero();
+    }
+
+    @Test
+    void successfulLoginsGiveTheirAttemptBack() {
+        for (int i = 0; i < 50; i++) {
+            assertThat(limiter.tryAcquire(USERNAME, OWNER)).isZero();
+            limiter.recordSuccess(USERNAME, OWNER);
+        }
+    }
+
+    @Test
+    void disabledLimiterAcceptsEverything() {
+        LoginRateLimiter disabled = new LoginRateLimiter(false, 1, 1, 1, 1, 2, 16, new SimpleMeterRegistry());
+        for (int i = 0; i < 10; i++) {
+            disabled.recordFailure(USERNAME, ATTACKER);
+            assertThat(disabled.tryAcquire(USERNAME, ATTACKER)).isZero();
+        }
+    }
+
+    private void fail(String username, String ip, int attempts) {
+        for (int i = 0; i < attempts; i++) {
+            assertThat(limiter.tryAcquire(username, ip)).isZero();
+            limiter.recordFailure(username, ip);
+        }
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.example.SpringSecurity.service;
+
+import com.example.SpringSecurity.model.Notice;
+import com.example.SpringSecurity.repository.NoticeRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class NoticeSnapshotTest {
+
+    private final NoticeRepository noticeRepository = mock(NoticeRepository.class);
+    private final NoticeSnapshot noticeSnapshot = new NoticeSnapshot(noticeRepository, new ObjectMapper());
+
+    @Test
+    void waitingRequestsUseTheSnapshotOfTheFirstLoad() throws Exception {
+        CountDownLatch queryStarted = new CountDownLatch(1);
+        CountDownLatch releaseQuery = new CountDownLatch(1);
+        when(noticeRepository.findAllActiveNotices()).thenAnswer(invocation -> {
+            queryStarted.countDown();
+            releaseQuery.await(5, TimeUnit.SECONDS);
+            return List.of(notice(1, "Home Loan Interest rates reduced"));
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<NoticeSnapshot.Snapshot>> results = new ArrayList<>();
+            results.add(executor.submit(noticeSnapshot::get));
+            assertThat(queryStarted.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(noticeSnapshot::get));
+            }
+            Thread.sleep(100); // the other requests are now waiting for the lock
+            releaseQuery.countDown();
+            String etag = results.get(0).get(5, TimeUnit.SECONDS).etag();
+            for (Future<NoticeSnapshot.Snapshot> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS).etag()).isEqualTo(etag);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(noticeRepository, times(1)).findAllActiveNotices();
+    }
+
+    @Test
+    void loadThatOverlapsAnInvalidationIsNotKept() {
+        // The first query reads the old rows while a notice is changed and committed
+        when(noticeRepository.findAllActiveNotices())
+                .thenAnswer(invocation -> {
+                    noticeSnapshot.invalidate();
+                    return List.of(notice(1, "old"));
+                })
+                .thenReturn(List.of(notice(1, "new")));
+
+        NoticeSnapshot.Snapshot first = noticeSnapshot.get();
+        NoticeSnapshot.Snapshot second = noticeSnapshot.get();
+
+        assertThat(new String(first.json())).contains("old");
+        assertThat(new String(second.json())).contains("new");
+        assertThat(second.etag()).isNotEqualTo(first.etag());
+        assertThat(noticeSnapshot.get()).isSameAs(second);
+    }
+
+    @Test
+    void refreshKeepsTheSnapshotWhenNothingChanged() {
+        when(noticeRepository.findAllActiveNotices()).thenReturn(List.of(notice(1, "same")));
+
+        NoticeSnapshot.Snapshot first = noticeSnapshot.get();
+        noticeSnapshot.refresh();
+
+        assertThat(noticeSnapshot.get()).isSameAs(first);
+        verify(noticeRepository, times(2)).findAllActiveNotices();
+    }
+
+    private static Notice notice(long id, String summary) {
+        Notice notice = new Notice();
+        notice.setNoticeId(id);
+        notice.setNoticeSummary(summary);
+        notice.setNoticeDetails(summary);
+        return notice;
+    }
+
+}
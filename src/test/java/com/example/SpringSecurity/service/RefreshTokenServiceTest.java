@@ -0,0 +1,152 @@
+package com.example.SpringSecurity.service;
+
+import com.example.SpringSecurity.constants.ApplicationConstants;
+import com.example.SpringSecurity.model.RefreshToken;
+import com.example.SpringSecurity.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// The service is a bean of the test context so its @Transactional methods run in their own transactions, as in the application.
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceTest {
+
+    private static final String USERNAME = "happy@example.com";
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        AuthorityRegistry authorityRegistry() {
+            return new AuthorityRegistry();
+        }
+
+        @Bean
+        JWTTokenService jwtTokenService(AuthorityRegistry authorityRegistry) {
+            return new JWTTokenService(JWTKeyRing.hmac(ApplicationConstants.JWT_SECRET_DEFAULT_VALUE),
+                    authorityRegistry, Duration.ofMinutes(15));
+        }
+
+        @Bean
+        TokenRevocationService tokenRevocationService() {
+            return new TokenRevocationService(1 << 16, Duration.ofMinutes(15));
+        }
+
+        @Bean
+        RefreshTokenService refreshTokenService(RefreshTokenRepository refreshTokenRepository, JWTTokenService jwtTokenService,
+                                                AuthorityRegistry authorityRegistry, TokenRevocationService tokenRevocationService) {
+            return new RefreshTokenService(refreshTokenRepository, jwtTokenService, authorityRegistry,
+                    tokenRevocationService, Duration.ofDays(14), 2);
+        }
+    }
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private JWTTokenService jwtTokenService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    private final Authentication login = new UsernamePasswordAuthenticationToken(USERNAME, null,
+            AuthorityUtils.createAuthorityList("ROLE_USER"));
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+    }
+
+    @Test
+    void rotationReturnsNewTokensOfTheSameFamily() {
+        String first = refreshTokenService.issue(login);
+
+        RefreshTokenService.TokenPair pair = refreshTokenService.rotate(first);
+
+        assertThat(pair.refreshToken()).isNotEqualTo(first);
+        assertThat(jwtTokenService.parseToken(pair.jwtToken()).get(JWTTokenService.USERNAME_CLAIM)).isEqualTo(USERNAME);
+        assertThat(refreshTokenRepository.findAll()).hasSize(2)
+                .extracting(RefreshToken::getFamilyId).containsOnly(refreshTokenRepository.findAll().get(0).getFamilyId());
+        assertThat(refreshTokenService.rotate(pair.refreshToken()).refreshToken()).isNotBlank();
+    }
+
+    @Test
+    void reusedTokenRevokesTheFamilyAndTheAccessTokens() {
+        String first = refreshTokenService.issue(login);
+        RefreshTokenService.TokenPair pair = refreshTokenService.rotate(first);
+        JWTAuthenticationToken accessToken = jwtTokenService.toAuthentication(jwtTokenService.parseToken(pair.jwtToken()));
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(first)).isInstanceOf(BadCredentialsException.class);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(pair.refreshToken())).isInstanceOf(BadCredentialsException.class);
+        assertThat(tokenRevocationService.isRevoked(accessToken)).isTrue();
+    }
+
+    @Test
+    void expiredTokenIsRejectedAndPurged() {
+        String token = refreshTokenService.issue(login);
+        RefreshToken stored = refreshTokenRepository.findAll().get(0);
+        stored.setExpiresAt(new Timestamp(System.currentTimeMillis() - 1000));
+        refreshTokenRepository.save(stored);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(token)).isInstanceOf(BadCredentialsException.class);
+
+        refreshTokenService.purgeExpired();
+        assertThat(refreshTokenRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void logoutRevokesOnlyTheFamilyOfThePresentedToken() {
+        String phone = refreshTokenService.issue(login);
+        String laptop = refreshTokenService.issue(login);
+
+        refreshTokenService.revokeFamily(phone);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(phone)).isInstanceOf(BadCredentialsException.class);
+        assertThat(refreshTokenService.rotate(laptop).refreshToken()).isNotBlank();
+    }
+
+    @Test
+    void revokeAllForUserRevokesEveryFamily() {
+        String phone = refreshTokenService.issue(login);
+        String laptop = refreshTokenService.issue(login);
+
+        refreshTokenService.revokeAllForUser(USERNAME);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(phone)).isInstanceOf(BadCredentialsException.class);
+        assertThatThrownBy(() -> refreshTokenService.rotate(laptop)).isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    void oldestFamiliesBeyondTheLimitAreRevokedAndPurged() {
+        String oldest = refreshTokenService.issue(login);
+        refreshTokenService.issue(login);
+        String newest = refreshTokenService.issue(login);
+
+        assertThatThrownBy(() -> refreshTokenService.rotate(oldest)).isInstanceOf(BadCredentialsException.class);
+        assertThat(refreshTokenService.rotate(newest).refreshToken()).isNotBlank();
+
+        refreshTokenService.purgeExpired();
+        assertThat(refreshTokenRepository.findAll()).extracting(RefreshToken::isRevoked).containsOnly(false);
+    }
+
+}
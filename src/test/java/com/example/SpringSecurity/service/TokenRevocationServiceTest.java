@@ -0,0 +1,110 @@
+package com.example.SpringSecurity.service;
+
+import com.example.SpringSecurity.constants.ApplicationConstants;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenRevocationServiceTest {
+
+    private static final String USERNAME = "happy@example.com";
+
+    private final TokenRevocationService revocationService = new TokenRevocationService(1 << 16, Duration.ofMinutes(15));
+
+    @Test
+    void revokedTokenIsRejectedOthersAreNot() {
+        long now = System.currentTimeMillis();
+        JWTAuthenticationToken stolen = token(USERNAME, "jti-1", now, now + 60_000);
+        JWTAuthenticationToken other = token(USERNAME, "jti-2", now, now + 60_000);
+
+        revocationService.revoke(stolen);
+
+        assertThat(revocationService.isRevoked(stolen)).isTrue();
+        assertThat(revocationService.isRevoked(other)).isFalse();
+    }
+
+    @Test
+    void revokeAllForUserOnlyAffectsTokensIssuedBefore() {
+        long now = System.currentTimeMillis();
+        JWTAuthenticationToken before = token(USERNAME, "jti-1", now - 1000, now + 60_000);
+        JWTAuthenticationToken otherUser = token("other@example.com", "jti-2", now - 1000, now + 60_000);
+
+        revocationService.revokeAllForUser(USERNAME);
+        JWTAuthenticationToken after = token(USERNAME, "jti-3", System.currentTimeMillis() + 1000, now + 60_000);
+
+        assertThat(revocationService.isRevoked(before)).isTrue();
+        assertThat(revocationService.isRevoked(after)).isFalse();
+        assertThat(revocationService.isRevoked(otherUser)).isFalse();
+    }
+
+    @Test
+    void tokenIssuedRightAfterRevokeAllForUserIsValid() {
+        JWTTokenService jwtTokenService = new JWTTokenService(JWTKeyRing.hmac(ApplicationConstants.JWT_SECRET_DEFAULT_VALUE),
+                new AuthorityRegistry(), Duration.ofMinutes(15));
+        UsernamePasswordAuthenticationToken login = new UsernamePasswordAuthenticationToken(USERNAME, null,
+                AuthorityUtils.createAuthorityList("ROLE_USER"));
+        JWTAuthenticationToken before = jwtTokenService.toAuthentication(
+                jwtTokenService.parseToken(jwtTokenService.generateToken(login)));
+
+        revocationService.revokeAllForUser(USERNAME);
+        // Usually in the same second as the revocation, which the whole-second iat claim could not tell apart
+        JWTAuthenticationToken after = jwtTokenService.toAuthentication(
+                jwtTokenService.parseToken(jwtTokenService.generateToken(login)));
+
+        assertThat(revocationService.isRevoked(before)).isTrue();
+        assertThat(revocationService.isRevoked(after)).isFalse();
+    }
+
+    @Test
+    void tokenWithoutJtiRevokesAllTokensOfTheUser() {
+        long now = System.currentTimeMillis();
+        JWTAuthenticationToken legacy = token(USERNAME, null, now - 1000, now + 60_000);
+        JWTAuthenticationToken sibling = token(USERNAME, "jti-1", now - 1000, now + 60_000);
+
+        revocationService.revoke(legacy);
+
+        assertThat(revocationService.isRevoked(legacy)).isTrue();
+        assertThat(revocationService.isRevoked(sibling)).isTrue();
+    }
+
+    @Test
+    void purgeForgetsRevocationsOfExpiredTokens() throws InterruptedException {
+        TokenRevocationService shortLived = new TokenRevocationService(1 << 16, Duration.ofMillis(1));
+        long now = System.currentTimeMillis();
+        JWTAuthenticationToken expired = token(USERNAME, "jti-1", now - 2000, now - 1000);
+        JWTAuthenticationToken active = token("other@example.com", "jti-2", now - 2000, now + 60_000);
+        shortLived.revoke(expired);
+        shortLived.revoke(active);
+        shortLived.revokeAllForUser("third@example.com");
+        Thread.sleep(5);
+
+        shortLived.purgeExpired();
+
+        assertThat(shortLived.isRevoked(expired)).isFalse();
+        assertThat(shortLived.isRevoked(active)).isTrue();
+        assertThat(shortLived.isRevoked(token("third@example.com", "jti-3", now - 2000, now + 60_000))).isFalse();
+    }
+
+    @Test
+    void bloomFilterHitsAreConfirmedInTheMap() {
+        long now = System.currentTimeMillis();
+        // A tiny filter so most probes hit set bits, the map still decides
+        TokenRevocationService tiny = new TokenRevocationService(64, Duration.ofMinutes(15));
+        for (int i = 0; i < 100; i++) {
+            tiny.revoke(token(USERNAME, "revoked-" + i, now, now + 60_000));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(tiny.isRevoked(token("user" + i + "@example.com", "valid-" + i, now, now + 60_000))).isFalse();
+        }
+    }
+
+    private static JWTAuthenticationToken token(String username, String tokenId, long issuedAt, long expiresAt) {
+        return new JWTAuthenticationToken(username, AuthorityUtils.createAuthorityList("ROLE_USER"), tokenId, issuedAt, expiresAt);
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.example.SpringSecurity.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionCursorTest {
+
+    @Test
+    void roundTrip() {
+        TransactionCursor cursor = new TransactionCursor(1, Date.valueOf("2024-03-01"), "2b1c6f0e-|-id");
+
+        TransactionCursor decoded = TransactionCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(cursor.encode()).doesNotContain("=", "+", "/");
+    }
+
+    @Test
+    void cursorWithoutDateCannotBeCreated() {
+        assertThatThrownBy(() -> new TransactionCursor(1, null, "id")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void tamperedCursorsAreRejected() {
+        assertThatThrownBy(() -> TransactionCursor.decode("not base64 at all!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TransactionCursor.decode(encode("1|null|id"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TransactionCursor.decode(encode("1|2024-03-01"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> TransactionCursor.decode(encode("x|2024-03-01|id"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
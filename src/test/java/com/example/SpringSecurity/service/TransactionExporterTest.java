@@ -0,0 +1,97 @@
+package com.example.SpringSecurity.service;
+
+import com.example.SpringSecurity.model.AccountTransactions;
+import com.example.SpringSecurity.repository.AccountTransactionsRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the export query on the embedded H2 database with a fetch size smaller than the number of rows
+@DataJpaTest
+class TransactionExporterTest {
+
+    private static final long CUSTOMER_ID = 1;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private AccountTransactionsRepository accountTransactionsRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private TransactionExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        exporter = new TransactionExporter(dataSource, objectMapper, 2);
+        accountTransactionsRepository.save(transaction("t3", CUSTOMER_ID, "2024-03-03", "Amazon.com"));
+        accountTransactionsRepository.save(transaction("t1", CUSTOMER_ID, "2024-03-01", "Coffee Shop"));
+        accountTransactionsRepository.save(transaction("t2", CUSTOMER_ID, "2024-03-02", "Fee, \"monthly\""));
+        accountTransactionsRepository.save(transaction("other", 2, "2024-03-02", "Not mine"));
+        accountTransactionsRepository.flush();
+    }
+
+    @Test
+    void ndjsonHasOneObjectPerLineOldestFirst() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exporter.export(CUSTOMER_ID, null, null, TransactionExporter.Format.NDJSON, out);
+
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(rows).isEqualTo(3);
+        assertThat(lines).hasSize(3).allSatisfy(line -> assertThat(line).startsWith("{").endsWith("}"));
+        assertThat(lines.stream().map(this::transactionId)).containsExactly("t1", "t2", "t3");
+        JsonNode second = objectMapper.readTree(lines.get(1));
+        assertThat(second.get("transactionDt").asText()).isEqualTo("2024-03-02");
+        assertThat(second.get("transactionSummary").asText()).isEqualTo("Fee, \"monthly\"");
+    }
+
+    @Test
+    void csvQuotesFieldsAndHonoursTheDateRange() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exporter.export(CUSTOMER_ID, LocalDate.of(2024, 3, 2), LocalDate.of(2024, 3, 3),
+                TransactionExporter.Format.CSV, out);
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8).lines().toList()).containsExactly(
+                "transactionId,accountNumber,transactionDt,transactionSummary,transactionType,transactionAmt,closingBalance",
+                "t2,1865764534,2024-03-02,\"Fee, \"\"monthly\"\"\",Withdrawal,30,34500",
+                "t3,1865764534,2024-03-03,Amazon.com,Withdrawal,30,34500");
+    }
+
+    private String transactionId(String line) {
+        try {
+            return objectMapper.readTree(line).get("transactionId").asText();
+        } catch (Exception ex) {
+            throw new AssertionError(line, ex);
+        }
+    }
+
+    private static AccountTransactions transaction(String id, long customerId, String date, String summary) {
+        AccountTransactions transaction = new AccountTransactions();
+        transaction.setTransactionId(id);
+        transaction.setAccountNumber(1865764534);
+        transaction.setCustomerId(customerId);
+        transaction.setTransactionDt(Date.valueOf(date));
+        transaction.setTransactionSummary(summary);
+        transaction.setTransactionType("Withdrawal");
+        transaction.setTransactionAmt(30);
+        transaction.setClosingBalance(34500);
+        return transaction;
+    }
+
+}
@@ -0,0 +1,136 @@
+package com.example.SpringSecurity.service;
+
+import com.example.SpringSecurity.model.Authority;
+import com.example.SpringSecurity.model.Customer;
+import com.example.SpringSecurity.repository.CustomerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The caches on the embedded H2 database, with UserCacheInvalidator registered as the JPA entity listener of Customer
+// and Authority. Not transactional, so every change commits as it does in the application.
+@DataJpaTest(properties = {"security.user-cache.enabled=true", "security.credential-cache.enabled=true"})
+@Import({CaffeineUserCache.class, CredentialVerificationCache.class, UserCacheInvalidator.class,
+        UserCacheInvalidatorTest.Config.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class UserCacheInvalidatorTest {
+
+    private static final String EMAIL = "happy@example.com";
+    private static final String PASSWORD = "EazyBytes@12345";
+    private static final String HASH = "{noop}" + PASSWORD;
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+    }
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CaffeineUserCache userCache;
+
+    @Autowired
+    private CredentialVerificationCache credentialVerificationCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private long customerId;
+
+    @BeforeEach
+    void setUp() {
+        Customer customer = new Customer();
+        customer.setName("Happy");
+        customer.setEmail(EMAIL);
+        customer.setPwd(HASH);
+        customer.setRole("read");
+        customerId = customerRepository.save(customer).getId();
+        cache(EMAIL);
+    }
+
+    @AfterEach
+    void tearDown() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                entityManager.createQuery("delete from Authority").executeUpdate());
+        customerRepository.deleteAll();
+    }
+
+    @Test
+    void passwordChangeEvictsTheUser() {
+        Customer customer = customerRepository.findById(customerId).orElseThrow();
+        customer.setPwd("{noop}Changed@12345");
+        customerRepository.save(customer);
+
+        assertThat(userCache.getUserFromCache(EMAIL)).isNull();
+        assertThat(credentialVerificationCache.matches(EMAIL, PASSWORD, HASH)).isFalse();
+    }
+
+    @Test
+    void authorityChangeEvictsTheUser() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Authority authority = new Authority();
+            authority.setName("ROLE_ADMIN");
+            authority.setCustomer(entityManager.find(Customer.class, customerId));
+            entityManager.persist(authority);
+        });
+
+        assertThat(userCache.getUserFromCache(EMAIL)).isNull();
+        assertThat(credentialVerificationCache.matches(EMAIL, PASSWORD, HASH)).isFalse();
+    }
+
+    @Test
+    void emailChangeEvictsTheOldUsername() {
+        Customer customer = customerRepository.findById(customerId).orElseThrow();
+        customer.setEmail("new@example.com");
+        customerRepository.save(customer);
+
+        assertThat(userCache.getUserFromCache(EMAIL)).isNull();
+        assertThat(credentialVerificationCache.matches(EMAIL, PASSWORD, HASH)).isFalse();
+    }
+
+    @Test
+    void otherUsersStayCached() {
+        cache("other@example.com");
+
+        Customer customer = customerRepository.findById(customerId).orElseThrow();
+        customer.setPwd("{noop}Changed@12345");
+        customerRepository.save(customer);
+
+        assertThat(userCache.getUserFromCache("other@example.com")).isNotNull();
+        assertThat(credentialVerificationCache.matches("other@example.com", PASSWORD, HASH)).isTrue();
+    }
+
+    private void cache(String email) {
+        userCache.putUserInCache(new User(email, HASH, AuthorityUtils.createAuthorityList("ROLE_USER")));
+        credentialVerificationCache.put(email, PASSWORD, HASH);
+        assertThat(userCache.getUserFromCache(email)).isNotNull();
+        assertThat(credentialVerificationCache.matches(email, PASSWORD, HASH)).isTrue();
+    }
+
+}